@@ -0,0 +1,89 @@
+package com.helpbridge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Same switch Spring Boot uses for Tomcat, @Scheduled and the default
+    // task executor. Only honoured on a Java 21+ runtime.
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Walks the volunteer pages for a new request. Kept small on purpose, the
+    // real work is handed to the email executor below.
+    @Bean(name = "fanOutExecutor")
+    public AsyncTaskExecutor fanOutExecutor() {
+        return blockingIoExecutor("fanout-", 2, 500, false);
+    }
+
+    // Background user deletions. Long-running chunked jobs, so they get their
+    // own threads rather than holding up fan-out; a full queue rejects and the
+    // job is reported as failed.
+    @Bean(name = "userDeletionExecutor")
+    public AsyncTaskExecutor userDeletionExecutor(@Value("${helpbridge.admin.delete-workers:1}") int workers,
+            @Value("${helpbridge.admin.delete-queue-capacity:20}") int queueCapacity) {
+        return blockingIoExecutor("user-delete-", workers, queueCapacity, false);
+    }
+
+    // Bounded pool for per-page email batches. When the queue is full the
+    // submitting fan-out thread runs the batch itself, which slows down paging
+    // instead of piling up volunteers in memory.
+    @Bean(name = "emailExecutor")
+    public AsyncTaskExecutor emailExecutor(@Value("${helpbridge.fanout.workers:4}") int workers,
+            @Value("${helpbridge.fanout.queue-capacity:50}") int queueCapacity) {
+        return blockingIoExecutor("email-", workers, queueCapacity, true);
+    }
+
+    // BCrypt checks for login. Sized to the CPU count since hashing is pure CPU;
+    // a full queue rejects (AbortPolicy) so excess logins are shed with a 503.
+    // Always platform threads: virtual threads buy nothing for CPU-bound work
+    // and the bounded queue is what makes load shedding possible.
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${helpbridge.login.hash-workers:0}") int workers,
+            @Value("${helpbridge.login.queue-capacity:64}") int queueCapacity) {
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return threadPool("bcrypt-", size, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor for work that mostly waits on JDBC or the network. In virtual
+     * thread mode each task gets its own virtual thread, but the same bounds
+     * apply: once concurrency + queueCapacity tasks are in flight a submit is
+     * run by the caller or rejected, never parked. SimpleAsyncTaskExecutor's
+     * concurrency limit would make the submitter wait instead, which stalls
+     * commit listeners and hides rejections from callers that shed load.
+     */
+    private AsyncTaskExecutor blockingIoExecutor(String prefix, int concurrency, int queueCapacity,
+            boolean callerRunsWhenFull) {
+        if (virtualThreads) {
+            return new BoundedVirtualTaskExecutor(prefix, concurrency, queueCapacity, callerRunsWhenFull);
+        }
+        RejectedExecutionHandler whenFull = callerRunsWhenFull
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        return threadPool(prefix, concurrency, queueCapacity, whenFull);
+    }
+
+    private ThreadPoolTaskExecutor threadPool(String prefix, int size, int queueCapacity,
+            RejectedExecutionHandler whenFull) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(prefix);
+        executor.setRejectedExecutionHandler(whenFull);
+        executor.initialize();
+        return executor;
+    }
+}
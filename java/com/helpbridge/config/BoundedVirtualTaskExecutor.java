@@ -0,0 +1,68 @@
+package com.helpbridge.config;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Virtual thread counterpart of a bounded ThreadPoolTaskExecutor. At most
+ * {@code concurrency} tasks run at once and at most {@code queueCapacity} more
+ * may wait for a slot (parked on their own virtual thread). A submit beyond
+ * that never blocks the caller: it either runs the task on the calling thread
+ * or throws TaskRejectedException, mirroring CallerRunsPolicy / AbortPolicy.
+ */
+public class BoundedVirtualTaskExecutor implements AsyncTaskExecutor {
+
+    private final SimpleAsyncTaskExecutor threads;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final int concurrency;
+    private final boolean callerRunsWhenFull;
+
+    public BoundedVirtualTaskExecutor(String prefix, int concurrency, int queueCapacity, boolean callerRunsWhenFull) {
+        this.threads = new SimpleAsyncTaskExecutor(prefix);
+        this.threads.setVirtualThreads(true);
+        this.admitted = new Semaphore(concurrency + queueCapacity);
+        this.running = new Semaphore(concurrency);
+        this.concurrency = concurrency;
+        this.callerRunsWhenFull = callerRunsWhenFull;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            if (callerRunsWhenFull) {
+                task.run();
+                return;
+            }
+            throw new TaskRejectedException("Executor " + threads.getThreadNamePrefix() + " is full");
+        }
+        try {
+            threads.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return concurrency - running.availablePermits();
+    }
+
+    public int getQueueSize() {
+        return running.getQueueLength();
+    }
+}
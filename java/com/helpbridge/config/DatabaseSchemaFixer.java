@@ -2,9 +2,12 @@ package com.helpbridge.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.ResultSet;
+
 @Component
 public class DatabaseSchemaFixer implements CommandLineRunner {
 
@@ -24,5 +27,65 @@ public class DatabaseSchemaFixer implements CommandLineRunner {
         } catch (Exception e) {
             System.out.println("Schema Fix Warning (might already be fixed): " + e.getMessage());
         }
+        try {
+            // Rows created before service_requests.version existed; Hibernate needs a version to lock on
+            int rows = jdbcTemplate.update("UPDATE service_requests SET version = 0 WHERE version IS NULL");
+            if (rows > 0) {
+                System.out.println("Schema Fix: initialised version on " + rows + " service requests.");
+            }
+        } catch (Exception e) {
+            System.out.println("Schema Fix Warning (service_requests.version): " + e.getMessage());
+        }
+
+        ensureDonationOrderIndex();
+
+        // Amounts moved from DOUBLE rupees to BIGINT paise. Copy the old values over once;
+        // on a fresh database the old columns don't exist and each step just warns.
+        String[][] moneyColumns = {
+                { "help_posts", "target_amount", "target_paise" },
+                { "help_posts", "collected_amount", "collected_paise" },
+                { "donations", "amount", "amount_paise" },
+                { "service_requests", "funds_allocated", "funds_allocated_paise" } };
+        for (String[] c : moneyColumns) {
+            try {
+                int rows = jdbcTemplate.update("UPDATE " + c[0] + " SET " + c[2] + " = COALESCE(ROUND(" + c[1]
+                        + " * 100), 0) WHERE " + c[2] + " IS NULL");
+                if (rows > 0) {
+                    System.out.println("Schema Fix: moved " + rows + " rows of " + c[0] + "." + c[1] + " to paise.");
+                }
+            } catch (Exception e) {
+                System.out.println("Schema Fix Warning (" + c[0] + "." + c[2] + "): " + e.getMessage());
+            }
+        }
+    }
+
+    // Recording a payment relies on uk_donation_order to reject a second row for the same order.
+    // Hibernate only logs it when it cannot create the index, so it is checked and created here,
+    // and startup stops if older duplicate donations are in the way.
+    private void ensureDonationOrderIndex() {
+        if (hasUniqueIndex("donations", "razorpay_order_id"))
+            return;
+        Long duplicates = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT razorpay_order_id FROM donations "
+                + "WHERE razorpay_order_id IS NOT NULL GROUP BY razorpay_order_id HAVING COUNT(*) > 1) d", Long.class);
+        if (duplicates != null && duplicates > 0) {
+            throw new IllegalStateException(duplicates + " payment orders have more than one donation. Remove the "
+                    + "extra rows so the unique index on donations.razorpay_order_id can be created; without it "
+                    + "repeated payment callbacks would be recorded twice.");
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_donation_order ON donations (razorpay_order_id)");
+        System.out.println("Schema Fix: created unique index uk_donation_order on donations.razorpay_order_id.");
+    }
+
+    private boolean hasUniqueIndex(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            try (ResultSet rs = con.getMetaData().getIndexInfo(con.getCatalog(), null, table, true, false)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
     }
 }
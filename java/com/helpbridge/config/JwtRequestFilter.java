@@ -1,13 +1,17 @@
 package com.helpbridge.config;
 
+import com.helpbridge.service.TokenRevocationService;
 import com.helpbridge.service.UserDetailsServiceImpl;
 import com.helpbridge.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +19,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -25,6 +31,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // When true, authorities come from the verified role claim and no user lookup is made
+    @Value("${helpbridge.security.stateless:true}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -32,32 +45,36 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                System.out.println("JWT Filter: Extracted username: " + username);
+                // Signature and expiry are checked here, once per token
+                claims = jwtUtil.parseVerified(jwt);
+                username = claims.getSubject();
             } catch (Exception e) {
-                System.out.println("JWT Filter: Error extracting username: " + e.getMessage());
+                System.out.println("JWT Filter: Invalid token: " + e.getMessage());
             }
-        } else
-
-        {
-            System.out.println("JWT Filter: No Bearer token found");
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && claims.getExpiration().after(new Date())
+                && !tokenRevocationService.isRevoked(username, claims.getIssuedAt())) {
+            UserDetails userDetails;
+            String role = claims.get("role", String.class);
+            if (stateless && role != null) {
+                userDetails = new org.springframework.security.core.userdetails.User(username, "",
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+            } else {
+                userDetails = this.userDetailsService.loadAuthenticatedUser(username);
             }
+
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            usernamePasswordAuthenticationToken
+                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
         chain.doFilter(request, response);
     }
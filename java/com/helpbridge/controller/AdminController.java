@@ -1,12 +1,18 @@
 package com.helpbridge.controller;
 
 import com.helpbridge.dto.AdminDashboardSummary;
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.UserSummary;
 import com.helpbridge.enums.RoleType;
 import com.helpbridge.model.User;
 import com.helpbridge.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,11 +25,74 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private com.helpbridge.service.VolunteerFanOutService volunteerFanOutService;
+
+    @Autowired
+    private com.helpbridge.service.MailDeliveryEngine mailDeliveryEngine;
+
+    @Autowired
+    private com.helpbridge.service.EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private com.helpbridge.service.PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private com.helpbridge.service.DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private com.helpbridge.service.NotificationPushService notificationPushService;
+
+    @Autowired
+    private com.helpbridge.service.NotificationWriter notificationWriter;
+
+    @Autowired
+    private com.helpbridge.service.NotificationRetentionService notificationRetentionService;
+
+    @Autowired
+    private com.helpbridge.service.UserDeletionJobService userDeletionJobService;
+
+    @Autowired
+    private com.helpbridge.service.GeoMatchingService geoMatchingService;
+
+    @Autowired
+    private com.helpbridge.service.VolunteerMatchingService volunteerMatchingService;
+
+    @Autowired
+    private com.helpbridge.service.RequestService requestService;
+
+    @Autowired
+    private com.helpbridge.service.CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private com.helpbridge.service.PaymentService paymentService;
+
+    @Autowired
+    private com.helpbridge.service.PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private com.helpbridge.service.CampaignCatalog campaignCatalog;
+
+    @Autowired
+    private com.helpbridge.service.SearchService searchService;
+
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers() {
         return ResponseEntity.ok(adminService.getAllUsers());
     }
 
+    @GetMapping("/users/summary")
+    public ResponseEntity<CursorPage<UserSummary>> getUserSummaries(@RequestParam(required = false) RoleType role,
+            @RequestParam(required = false) Long cursor, @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.getUserSummaries(role, cursor, Math.max(1, Math.min(size, 500))));
+    }
+
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = out -> adminService.exportUsers(out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @GetMapping("/users/{role}")
     public ResponseEntity<List<User>> getUsersByRole(@PathVariable RoleType role,
             @RequestParam(required = false) String city) {
@@ -51,17 +120,137 @@ public class AdminController {
         return ResponseEntity.ok().body("{\"message\": \"User suspended\"}");
     }
 
+    // background=true releases/deletes the user's requests in chunks; poll /delete-jobs/{jobId} for progress
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<?> deleteUser(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean background) {
+        if (background) {
+            com.helpbridge.service.UserDeletionJobService.DeletionJob job = userDeletionJobService.start(id);
+            return "FAILED".equals(job.getState())
+                    ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(job)
+                    : ResponseEntity.accepted().body(job);
+        }
         adminService.deleteUser(id);
         return ResponseEntity.ok().body("{\"message\": \"User deleted\"}");
     }
 
+    @GetMapping("/delete-jobs/{jobId}")
+    public ResponseEntity<?> getDeletionJob(@PathVariable String jobId) {
+        com.helpbridge.service.UserDeletionJobService.DeletionJob job = userDeletionJobService.getJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
     @GetMapping("/dashboard-summary")
     public ResponseEntity<AdminDashboardSummary> getDashboardSummary() {
         return ResponseEntity.ok(adminService.getDashboardSummary());
     }
 
+    // Snapshot on connect, then coalesced deltas as users and requests change
+    @GetMapping(value = "/dashboard-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardStreamService.subscribe();
+    }
+
+    @GetMapping("/stats/dashboard-stream")
+    public ResponseEntity<Map<String, Object>> getDashboardStreamStats() {
+        return ResponseEntity.ok(dashboardStreamService.getStats());
+    }
+
+    @GetMapping("/stats/notifications")
+    public ResponseEntity<Map<String, Object>> getNotificationStats() {
+        Map<String, Object> stats = new java.util.LinkedHashMap<>(notificationPushService.getStats());
+        stats.put("writer", notificationWriter.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/stats/notification-retention")
+    public ResponseEntity<Map<String, Object>> getNotificationRetentionStats() {
+        return ResponseEntity.ok(notificationRetentionService.getStats());
+    }
+
+    @PostMapping("/notifications/compact")
+    public ResponseEntity<Map<String, Object>> compactNotifications() {
+        return ResponseEntity.ok(notificationRetentionService.compact());
+    }
+
+    @GetMapping("/stats/geo")
+    public ResponseEntity<Map<String, Object>> getGeoStats() {
+        return ResponseEntity.ok(geoMatchingService.getStats());
+    }
+
+    @GetMapping("/stats/requests")
+    public ResponseEntity<Map<String, Object>> getRequestStats() {
+        return ResponseEntity.ok(requestService.getStats());
+    }
+
+    @GetMapping("/stats/donations")
+    public ResponseEntity<Map<String, Object>> getDonationStats() {
+        return ResponseEntity.ok(campaignTotalsService.getStats());
+    }
+
+    @GetMapping("/stats/payments")
+    public ResponseEntity<Map<String, Object>> getPaymentStats() {
+        return ResponseEntity.ok(paymentService.getStats());
+    }
+
+    @GetMapping("/stats/webhooks")
+    public ResponseEntity<Map<String, Object>> getWebhookStats() {
+        return ResponseEntity.ok(paymentWebhookService.getStats());
+    }
+
+    @GetMapping("/stats/catalog")
+    public ResponseEntity<Map<String, Object>> getCatalogStats() {
+        return ResponseEntity.ok(campaignCatalog.getStats());
+    }
+
+    @GetMapping("/stats/search")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(searchService.getStats());
+    }
+
+    // Rebuilds the search index from the database, e.g. after bulk changes made outside the app
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        searchService.rebuild();
+        return ResponseEntity.ok(searchService.getStats());
+    }
+
+    // Campaign totals against the donations ledger; fix=true applies the differences
+    @PostMapping("/donations/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileDonations(@RequestParam(defaultValue = "false") boolean fix) {
+        return ResponseEntity.ok(campaignTotalsService.reconcile(fix));
+    }
+
+    @GetMapping("/stats/matching")
+    public ResponseEntity<Map<String, Object>> getMatchingStats() {
+        return ResponseEntity.ok(volunteerMatchingService.getStats());
+    }
+
+    @GetMapping("/stats/fanout")
+    public ResponseEntity<Map<String, Object>> getFanOutStats() {
+        return ResponseEntity.ok(volunteerFanOutService.getStats());
+    }
+
+    @GetMapping("/stats/mail")
+    public ResponseEntity<Map<String, Object>> getMailStats() {
+        return ResponseEntity.ok(mailDeliveryEngine.getStats());
+    }
+
+    @GetMapping("/stats/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(emailOutboxDispatcher.getStats());
+    }
+
+    @PostMapping("/outbox/retry-dead")
+    public ResponseEntity<?> retryDeadEmails() {
+        int count = emailOutboxDispatcher.requeueDead();
+        return ResponseEntity.ok().body("{\"message\": \"" + count + " emails requeued\"}");
+    }
+
+    @GetMapping("/stats/login")
+    public ResponseEntity<Map<String, Object>> getLoginStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
     @GetMapping("/recent-activities")
     public ResponseEntity<List<Map<String, Object>>> getRecentActivities() {
         // Mocking activities for now as we don't have a centralized Activity Log table
@@ -1,6 +1,8 @@
 package com.helpbridge.controller;
 
+import com.helpbridge.dto.CampaignSummary;
 import com.helpbridge.model.HelpPost;
+import com.helpbridge.service.CampaignCatalog;
 import com.helpbridge.service.HelpPostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,19 +17,32 @@ public class HelpPostController {
     @Autowired
     private HelpPostService helpPostService;
 
+    @Autowired
+    private CampaignCatalog campaignCatalog;
+
     @PostMapping("/{ngoId}")
     public ResponseEntity<HelpPost> createPost(@RequestBody HelpPost post, @PathVariable Long ngoId) {
         return ResponseEntity.ok(helpPostService.createPost(post, ngoId));
     }
 
+    // Served from the in-memory catalogue; every filter is optional
     @GetMapping
-    public ResponseEntity<List<HelpPost>> getAllPosts() {
-        return ResponseEntity.ok(helpPostService.getAllPosts());
+    public ResponseEntity<List<CampaignSummary>> getAllPosts(@RequestParam(required = false) String city,
+            @RequestParam(required = false) String category, @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long ngoId) {
+        return ResponseEntity.ok(campaignCatalog.list(city, category, status, ngoId));
+    }
+
+    // by=progress (default) or by=recent, open campaigns only
+    @GetMapping("/top")
+    public ResponseEntity<List<CampaignSummary>> getTopPosts(@RequestParam(defaultValue = "progress") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(campaignCatalog.top(by, Math.min(limit, 100)));
     }
 
     @GetMapping("/ngo/{ngoId}")
-    public ResponseEntity<List<HelpPost>> getPostsByNgo(@PathVariable Long ngoId) {
-        return ResponseEntity.ok(helpPostService.getPostsByNgo(ngoId));
+    public ResponseEntity<List<CampaignSummary>> getPostsByNgo(@PathVariable Long ngoId) {
+        return ResponseEntity.ok(campaignCatalog.list(null, null, null, ngoId));
     }
 
     @PostMapping("/{postId}/complete")
@@ -1,13 +1,15 @@
 package com.helpbridge.controller;
 
-import com.helpbridge.model.Notification;
-import com.helpbridge.model.User;
-import com.helpbridge.repository.NotificationRepository; // I will create this repo in next step inline or let it be
-import com.helpbridge.repository.UserRepository;
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.NotificationView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -16,8 +18,31 @@ public class NotificationController {
     @Autowired
     private com.helpbridge.service.NotificationService notificationService;
 
+    @Autowired
+    private com.helpbridge.service.NotificationPushService notificationPushService;
+
+    // Newest first; pass the returned nextCursor to get the next page
     @GetMapping("/{userId}")
-    public ResponseEntity<List<Notification>> getUserNotifications(@PathVariable Long userId) {
-        return ResponseEntity.ok(notificationService.getUserNotifications(userId));
+    public ResponseEntity<CursorPage<NotificationView>> getUserNotifications(@PathVariable Long userId,
+            @RequestParam(required = false) Long cursor, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getUserNotifications(userId, cursor,
+                Math.max(1, Math.min(size, 100))));
+    }
+
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(userId)));
+    }
+
+    // Body is a list of notification ids; no body (or an empty list) marks everything read
+    @PostMapping("/{userId}/read")
+    public ResponseEntity<Map<String, Long>> markRead(@PathVariable Long userId,
+            @RequestBody(required = false) List<Long> ids) {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.markRead(userId, ids)));
+    }
+
+    @GetMapping(value = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long userId) {
+        return notificationPushService.subscribe(userId, notificationService.getUnreadCount(userId));
     }
 }
@@ -1,13 +1,16 @@
 package com.helpbridge.controller;
 
 import com.helpbridge.service.PaymentService;
-import com.razorpay.RazorpayException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/payment")
@@ -17,6 +20,9 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private com.helpbridge.service.PaymentWebhookService paymentWebhookService;
+
     @org.springframework.beans.factory.annotation.Value("${razorpay.key.id}")
     private String razorpayKeyId;
 
@@ -25,23 +31,26 @@ public class PaymentController {
         return ResponseEntity.ok(Map.of("key", razorpayKeyId));
     }
 
-    // 1. Create Order
+    // 1. Create Order. Async: the servlet thread is released while the gateway call is in flight.
     @PostMapping("/create-order/{campaignId}")
-    public ResponseEntity<?> createOrder(@PathVariable Long campaignId, @RequestBody Map<String, Double> payload) {
-        try {
-            Double amount = payload.get("amount");
-            if (amount == null || amount <= 0) {
-                return ResponseEntity.badRequest().body("Invalid amount");
-            }
-            // Return the full Order object as string (JSON)
-            String order = paymentService.createOrder(campaignId, amount);
-            return ResponseEntity.ok().contentType(org.springframework.http.MediaType.APPLICATION_JSON).body(order);
-
-        } catch (Exception e) {
-            e.printStackTrace(); // Log the error
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error creating order: " + e.getMessage());
+    public CompletableFuture<ResponseEntity<?>> createOrder(@PathVariable Long campaignId,
+            @RequestBody Map<String, Double> payload, @RequestParam(required = false) Long userId) {
+        Double amount = payload.get("amount");
+        if (amount == null || amount <= 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid amount"));
         }
+        // Return the full Order object as string (JSON)
+        return paymentService.createOrderAsync(campaignId, amount, userId)
+                .<ResponseEntity<?>>thenApply(order -> ResponseEntity.ok()
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON).body(order))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Error creating order: " + cause.getMessage()); // Log the error
+                    HttpStatusCode status = cause instanceof ResponseStatusException
+                            ? ((ResponseStatusException) cause).getStatusCode()
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return ResponseEntity.status(status).body("Error creating order: " + cause.getMessage());
+                });
     }
 
     // 2. Verify Payment
@@ -56,4 +65,16 @@ public class PaymentController {
                     .body(Map.of("status", "failed", "message", "Signature verification failed"));
         }
     }
+
+    // 3. Razorpay webhook. Acknowledged once queued; the donation is written in the background.
+    @PostMapping("/webhook")
+    public ResponseEntity<?> webhook(@RequestBody String payload,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        if (!paymentWebhookService.receive(payload, signature, eventId)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("status", "failed", "message", "Signature verification failed"));
+        }
+        return ResponseEntity.ok(Map.of("status", "accepted"));
+    }
 }
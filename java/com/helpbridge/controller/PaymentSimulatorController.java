@@ -0,0 +1,44 @@
+package com.helpbridge.controller;
+
+import com.helpbridge.service.PaymentSimulatorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Local Razorpay stand-in, only mapped when the simulator is enabled
+@RestController
+@RequestMapping("/simulator/razorpay/v1")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "helpbridge.payments.simulator.enabled", havingValue = "true")
+public class PaymentSimulatorController {
+
+    @Autowired
+    private PaymentSimulatorService paymentSimulatorService;
+
+    @PostMapping("/orders")
+    public CompletableFuture<ResponseEntity<String>> createOrder(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody String body) {
+        return paymentSimulatorService.createOrder(authorization, body);
+    }
+
+    // Stands in for the checkout widget: pays the order and returns the signed ids
+    @PostMapping("/payments/simulate")
+    public ResponseEntity<?> simulatePayment(@RequestBody Map<String, String> payload) {
+        try {
+            return ResponseEntity.ok(paymentSimulatorService.simulatePayment(payload.get("order_id")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(paymentSimulatorService.getStats());
+    }
+}
@@ -1,10 +1,15 @@
 package com.helpbridge.controller;
 
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.ServiceRequestSummary;
 import com.helpbridge.model.ServiceRequest;
 import com.helpbridge.service.RequestService;
+import com.helpbridge.service.VolunteerMatchingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,6 +21,9 @@ public class RequestController {
     @Autowired
     private RequestService requestService;
 
+    @Autowired
+    private VolunteerMatchingService matchingService;
+
     @PostMapping
     public ResponseEntity<?> createRequest(@RequestBody ServiceRequest request) {
         // Assuming the student object inside request only has ID populated or similar
@@ -35,9 +43,13 @@ public class RequestController {
         return ResponseEntity.ok(requestService.getRequestsByVolunteer(volunteerId));
     }
 
+    // Geo match around lat/lon or the volunteer's position when known, city match otherwise
     @GetMapping("/nearby")
-    public ResponseEntity<List<ServiceRequest>> getNearbyRequests(@RequestParam String city) {
-        return ResponseEntity.ok(requestService.getNearbyRequests(city));
+    public ResponseEntity<List<ServiceRequest>> getNearbyRequests(@RequestParam(required = false) String city,
+            @RequestParam(required = false) Double lat, @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Long volunteerId,
+            @RequestParam(defaultValue = "${helpbridge.geo.nearby-radius-km:15}") double radiusKm) {
+        return ResponseEntity.ok(requestService.getNearbyRequests(city, lat, lon, volunteerId, radiusKm));
     }
 
     @PostMapping("/{requestId}/accept/{volunteerId}")
@@ -59,13 +71,31 @@ public class RequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ServiceRequest>> getAllRequests(@RequestParam(required = false) Long ngoId) {
+    public ResponseEntity<?> getAllRequests(@RequestParam(required = false) Long ngoId,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
         if (ngoId != null) {
+            // Paged when the client asks for a page size, full list otherwise
+            if (size != null) {
+                return ResponseEntity.ok(requestService.getRequestsForNgoView(ngoId, cursor,
+                        Math.max(1, Math.min(size, 200))));
+            }
             return ResponseEntity.ok(requestService.getRequestsForNgoView(ngoId));
         }
         return ResponseEntity.ok(requestService.getAllRequests());
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<CursorPage<ServiceRequestSummary>> getRequestSummaries(
+            @RequestParam(required = false) Long cursor, @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(requestService.getRequestSummaries(cursor, Math.max(1, Math.min(size, 500))));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRequests() {
+        StreamingResponseBody body = out -> requestService.exportRequests(out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @PostMapping("/{requestId}/accept")
     public ResponseEntity<?> acceptRequestByNgo(@PathVariable Long requestId, @RequestParam Long ngoId) {
         requestService.acceptRequestByNgo(requestId, ngoId);
@@ -93,6 +123,20 @@ public class RequestController {
         return ResponseEntity.ok().body("{\"message\": \"Volunteer assigned\"}");
     }
 
+    // Best volunteers for this request, highest score first
+    @GetMapping("/{requestId}/candidates")
+    public ResponseEntity<List<VolunteerMatchingService.Candidate>> getCandidates(@PathVariable Long requestId,
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(matchingService.rank(requestId, Math.min(k, 100)));
+    }
+
+    // Assigns the listed pending requests, or the oldest pending ones up to limit, to their best candidate
+    @PostMapping("/auto-assign")
+    public ResponseEntity<?> autoAssign(@RequestParam Long ngoId, @RequestParam(defaultValue = "50") int limit,
+            @RequestBody(required = false) List<Long> requestIds) {
+        return ResponseEntity.ok(matchingService.autoAssign(requestIds, ngoId, Math.min(limit, 500)));
+    }
+
     @PostMapping("/{requestId}/reject")
     public ResponseEntity<?> rejectAssignment(@PathVariable Long requestId) {
         requestService.rejectAssignment(requestId);
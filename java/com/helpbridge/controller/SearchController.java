@@ -0,0 +1,26 @@
+package com.helpbridge.controller;
+
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.SearchHit;
+import com.helpbridge.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // type is post or request; city and status filter exactly, ignoring case
+    @GetMapping
+    public ResponseEntity<CursorPage<SearchHit>> search(@RequestParam String q,
+            @RequestParam(required = false) String type, @RequestParam(required = false) String city,
+            @RequestParam(required = false) String status, @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) Integer cursor, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(q, type, city, status, fuzzy, cursor,
+                Math.max(1, Math.min(size, 100))));
+    }
+}
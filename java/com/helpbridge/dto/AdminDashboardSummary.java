@@ -1,10 +1,15 @@
 package com.helpbridge.dto;
 
+import java.util.Map;
+
 public class AdminDashboardSummary {
     private RoleStats students;
     private RoleStats volunteers;
     private RoleStats ngos;
     private RoleStats donors;
+    private Map<String, Long> requestsByStatus;
+    private long donationCount;
+    private double donationTotal;
 
     public AdminDashboardSummary(RoleStats students, RoleStats volunteers, RoleStats ngos, RoleStats donors) {
         this.students = students;
@@ -45,6 +50,30 @@ public class AdminDashboardSummary {
         this.donors = donors;
     }
 
+    public Map<String, Long> getRequestsByStatus() {
+        return requestsByStatus;
+    }
+
+    public void setRequestsByStatus(Map<String, Long> requestsByStatus) {
+        this.requestsByStatus = requestsByStatus;
+    }
+
+    public long getDonationCount() {
+        return donationCount;
+    }
+
+    public void setDonationCount(long donationCount) {
+        this.donationCount = donationCount;
+    }
+
+    public double getDonationTotal() {
+        return donationTotal;
+    }
+
+    public void setDonationTotal(double donationTotal) {
+        this.donationTotal = donationTotal;
+    }
+
     public static class RoleStats {
         private long total;
         private long approved;
@@ -0,0 +1,117 @@
+package com.helpbridge.dto;
+
+import com.helpbridge.util.Money;
+
+import java.time.LocalDateTime;
+
+// Immutable view of a HelpPost for the campaign catalogue, built directly by JPQL.
+// Donations produce a new instance through withDonations().
+public class CampaignSummary {
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final String category;
+    private final String city;
+    private final String status;
+    private final long targetPaise;
+    private final long collectedPaise;
+    private final LocalDateTime createdAt;
+    private final Long ngoId;
+    private final String ngoName;
+    private final long recentPaise;
+    private final LocalDateTime lastDonationAt;
+
+    public CampaignSummary(Long id, String title, String description, String category, String city, String status,
+            Long targetPaise, Long collectedPaise, LocalDateTime createdAt, Long ngoId, String ngoName) {
+        this(id, title, description, category, city, status, targetPaise == null ? 0 : targetPaise,
+                collectedPaise == null ? 0 : collectedPaise, createdAt, ngoId, ngoName, 0, null);
+    }
+
+    private CampaignSummary(Long id, String title, String description, String category, String city, String status,
+            long targetPaise, long collectedPaise, LocalDateTime createdAt, Long ngoId, String ngoName,
+            long recentPaise, LocalDateTime lastDonationAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.category = category;
+        this.city = city;
+        this.status = status;
+        this.targetPaise = targetPaise;
+        this.collectedPaise = collectedPaise;
+        this.createdAt = createdAt;
+        this.ngoId = ngoId;
+        this.ngoName = ngoName;
+        this.recentPaise = recentPaise;
+        this.lastDonationAt = lastDonationAt;
+    }
+
+    // collected is added to the total, recent to the donations in the current window
+    public CampaignSummary withDonations(long collected, long recent, LocalDateTime at) {
+        LocalDateTime last = lastDonationAt == null || (at != null && at.isAfter(lastDonationAt)) ? at : lastDonationAt;
+        return new CampaignSummary(id, title, description, category, city, status, targetPaise,
+                collectedPaise + collected, createdAt, ngoId, ngoName, recentPaise + recent, last);
+    }
+
+    // Fresh database values with the recent-donation figures already tracked for this campaign
+    public CampaignSummary withRecentOf(CampaignSummary tracked) {
+        return new CampaignSummary(id, title, description, category, city, status, targetPaise, collectedPaise,
+                createdAt, ngoId, ngoName, tracked.recentPaise, tracked.lastDonationAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Double getTargetAmount() {
+        return Money.toRupees(targetPaise);
+    }
+
+    public Double getCollectedAmount() {
+        return Money.toRupees(collectedPaise);
+    }
+
+    // Percent of the target raised; 0 when there is no target
+    public double getProgress() {
+        return targetPaise <= 0 ? 0 : collectedPaise * 100.0 / targetPaise;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getNgoId() {
+        return ngoId;
+    }
+
+    public String getNgoName() {
+        return ngoName;
+    }
+
+    public Double getRecentDonations() {
+        return Money.toRupees(recentPaise);
+    }
+
+    public LocalDateTime getLastDonationAt() {
+        return lastDonationAt;
+    }
+}
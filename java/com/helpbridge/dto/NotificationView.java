@@ -0,0 +1,34 @@
+package com.helpbridge.dto;
+
+import java.time.LocalDateTime;
+
+// What a client sees of a notification; the owning User is implied by the URL
+public class NotificationView {
+    private Long id;
+    private String message;
+    private boolean read;
+    private LocalDateTime createdAt;
+
+    public NotificationView(Long id, String message, boolean read, LocalDateTime createdAt) {
+        this.id = id;
+        this.message = message;
+        this.read = read;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.helpbridge.dto;
+
+// One search result: a help post or a service request
+public class SearchHit {
+    private String type;
+    private Long id;
+    private String title;
+    private String snippet;
+    private String city;
+    private String status;
+    private double score;
+
+    public SearchHit(String type, Long id, String title, String snippet, String city, String status, double score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.snippet = snippet;
+        this.city = city;
+        this.status = status;
+        this.score = score;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,107 @@
+package com.helpbridge.dto;
+
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.util.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Flat view of a ServiceRequest for listings, built directly by JPQL so no entities are loaded
+public class ServiceRequestSummary {
+    private Long id;
+    private String description;
+    private String city;
+    private String location;
+    private RequestStatus status;
+    private LocalDate requestDate;
+    private LocalTime requestTime;
+    private Double fundsAllocated;
+    private LocalDateTime createdAt;
+    private Long studentId;
+    private String studentName;
+    private Long volunteerId;
+    private String volunteerName;
+    private Long ngoId;
+    private String ngoName;
+
+    public ServiceRequestSummary(Long id, String description, String city, String location, RequestStatus status,
+            LocalDate requestDate, LocalTime requestTime, Long fundsAllocatedPaise, LocalDateTime createdAt,
+            Long studentId, String studentName, Long volunteerId, String volunteerName, Long ngoId, String ngoName) {
+        this.id = id;
+        this.description = description;
+        this.city = city;
+        this.location = location;
+        this.status = status;
+        this.requestDate = requestDate;
+        this.requestTime = requestTime;
+        this.fundsAllocated = Money.toRupees(fundsAllocatedPaise);
+        this.createdAt = createdAt;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.volunteerId = volunteerId;
+        this.volunteerName = volunteerName;
+        this.ngoId = ngoId;
+        this.ngoName = ngoName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public RequestStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getRequestDate() {
+        return requestDate;
+    }
+
+    public LocalTime getRequestTime() {
+        return requestTime;
+    }
+
+    public Double getFundsAllocated() {
+        return fundsAllocated;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public Long getVolunteerId() {
+        return volunteerId;
+    }
+
+    public String getVolunteerName() {
+        return volunteerName;
+    }
+
+    public Long getNgoId() {
+        return ngoId;
+    }
+
+    public String getNgoName() {
+        return ngoName;
+    }
+}
@@ -0,0 +1,62 @@
+package com.helpbridge.dto;
+
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+
+import java.time.LocalDateTime;
+
+// Flat view of a User for admin listings, never carries the password hash
+public class UserSummary {
+    private Long id;
+    private String fullName;
+    private String email;
+    private String phoneNumber;
+    private RoleType role;
+    private UserStatus status;
+    private String city;
+    private LocalDateTime createdAt;
+
+    public UserSummary(Long id, String fullName, String email, String phoneNumber, RoleType role, UserStatus status,
+            String city, LocalDateTime createdAt) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.role = role;
+        this.status = status;
+        this.city = city;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public RoleType getRole() {
+        return role;
+    }
+
+    public UserStatus getStatus() {
+        return status;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
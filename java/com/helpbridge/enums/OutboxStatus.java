@@ -0,0 +1,8 @@
+package com.helpbridge.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -1,9 +1,28 @@
 package com.helpbridge.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum RequestStatus {
     PENDING,
     ASSIGNED,
     IN_PROGRESS,
     ACCEPTED,
-    COMPLETED
+    COMPLETED;
+
+    private Set<RequestStatus> next;
+
+    // Allowed transitions. ASSIGNED -> ASSIGNED is a reassignment; ACCEPTED
+    // means accepted by an NGO (from PENDING) or by the volunteer (from ASSIGNED).
+    static {
+        PENDING.next = EnumSet.of(ACCEPTED, ASSIGNED);
+        ASSIGNED.next = EnumSet.of(ASSIGNED, ACCEPTED, PENDING, COMPLETED);
+        ACCEPTED.next = EnumSet.of(ASSIGNED, IN_PROGRESS, COMPLETED);
+        IN_PROGRESS.next = EnumSet.of(COMPLETED);
+        COMPLETED.next = EnumSet.noneOf(RequestStatus.class);
+    }
+
+    public boolean canMoveTo(RequestStatus target) {
+        return next.contains(target);
+    }
 }
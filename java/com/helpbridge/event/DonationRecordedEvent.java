@@ -0,0 +1,38 @@
+package com.helpbridge.event;
+
+import com.helpbridge.util.Money;
+
+public class DonationRecordedEvent {
+
+    private final Long donationId;
+    private final Long campaignId;
+    private final Long donorId;
+    private final long amountPaise;
+
+    public DonationRecordedEvent(Long donationId, Long campaignId, Long donorId, long amountPaise) {
+        this.donationId = donationId;
+        this.campaignId = campaignId;
+        this.donorId = donorId;
+        this.amountPaise = amountPaise;
+    }
+
+    public Long getDonationId() {
+        return donationId;
+    }
+
+    public Long getCampaignId() {
+        return campaignId;
+    }
+
+    public Long getDonorId() {
+        return donorId;
+    }
+
+    public long getAmountPaise() {
+        return amountPaise;
+    }
+
+    public Double getAmount() {
+        return Money.toRupees(amountPaise);
+    }
+}
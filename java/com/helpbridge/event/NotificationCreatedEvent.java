@@ -0,0 +1,34 @@
+package com.helpbridge.event;
+
+import java.time.LocalDateTime;
+
+public class NotificationCreatedEvent {
+
+    private final Long notificationId;
+    private final Long userId;
+    private final String message;
+    private final LocalDateTime createdAt;
+
+    public NotificationCreatedEvent(Long notificationId, Long userId, String message, LocalDateTime createdAt) {
+        this.notificationId = notificationId;
+        this.userId = userId;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
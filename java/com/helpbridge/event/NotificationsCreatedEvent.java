@@ -0,0 +1,30 @@
+package com.helpbridge.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Same message written for many users in one bulk insert
+public class NotificationsCreatedEvent {
+
+    private final List<Long> userIds;
+    private final String message;
+    private final LocalDateTime createdAt;
+
+    public NotificationsCreatedEvent(List<Long> userIds, String message, LocalDateTime createdAt) {
+        this.userIds = userIds;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
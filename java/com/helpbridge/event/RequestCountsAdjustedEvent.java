@@ -0,0 +1,20 @@
+package com.helpbridge.event;
+
+import com.helpbridge.enums.RequestStatus;
+
+import java.util.Map;
+
+// Net change in requests per status after a bulk statement that touched many
+// rows at once (e.g. a user's requests removed or released on deletion)
+public class RequestCountsAdjustedEvent {
+
+    private final Map<RequestStatus, Long> deltas;
+
+    public RequestCountsAdjustedEvent(Map<RequestStatus, Long> deltas) {
+        this.deltas = deltas;
+    }
+
+    public Map<RequestStatus, Long> getDeltas() {
+        return deltas;
+    }
+}
@@ -0,0 +1,47 @@
+package com.helpbridge.event;
+
+import com.helpbridge.enums.RequestStatus;
+
+public class RequestStatusChangedEvent {
+
+    private final Long requestId;
+    private final RequestStatus previousStatus;
+    private final RequestStatus status;
+    private final Long volunteerId; // volunteer involved in the change, if any
+    private final Long previousVolunteerId; // volunteer on the request before the change, differs on reassignment
+    private final Long ngoId;
+
+    public RequestStatusChangedEvent(Long requestId, RequestStatus previousStatus, RequestStatus status,
+            Long volunteerId, Long previousVolunteerId, Long ngoId) {
+        this.requestId = requestId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.volunteerId = volunteerId;
+        this.previousVolunteerId = previousVolunteerId;
+        this.ngoId = ngoId;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public RequestStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public RequestStatus getStatus() {
+        return status;
+    }
+
+    public Long getVolunteerId() {
+        return volunteerId;
+    }
+
+    public Long getPreviousVolunteerId() {
+        return previousVolunteerId;
+    }
+
+    public Long getNgoId() {
+        return ngoId;
+    }
+}
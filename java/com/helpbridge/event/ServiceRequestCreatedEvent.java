@@ -0,0 +1,16 @@
+package com.helpbridge.event;
+
+import com.helpbridge.model.ServiceRequest;
+
+public class ServiceRequestCreatedEvent {
+
+    private final ServiceRequest request;
+
+    public ServiceRequestCreatedEvent(ServiceRequest request) {
+        this.request = request;
+    }
+
+    public ServiceRequest getRequest() {
+        return request;
+    }
+}
@@ -0,0 +1,28 @@
+package com.helpbridge.event;
+
+import com.helpbridge.enums.RequestStatus;
+
+public class ServiceRequestDeletedEvent {
+
+    private final Long requestId;
+    private final RequestStatus status;
+    private final Long volunteerId;
+
+    public ServiceRequestDeletedEvent(Long requestId, RequestStatus status, Long volunteerId) {
+        this.requestId = requestId;
+        this.status = status;
+        this.volunteerId = volunteerId;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public RequestStatus getStatus() {
+        return status;
+    }
+
+    public Long getVolunteerId() {
+        return volunteerId;
+    }
+}
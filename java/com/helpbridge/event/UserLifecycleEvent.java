@@ -0,0 +1,54 @@
+package com.helpbridge.event;
+
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+
+public class UserLifecycleEvent {
+
+    public enum Type {
+        REGISTERED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long userId;
+    private final String email;
+    private final RoleType role;
+    private final UserStatus previousStatus; // null for REGISTERED
+    private final UserStatus status; // null for DELETED
+
+    public UserLifecycleEvent(Type type, Long userId, String email, RoleType role, UserStatus previousStatus,
+            UserStatus status) {
+        this.type = type;
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public RoleType getRole() {
+        return role;
+    }
+
+    public UserStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public UserStatus getStatus() {
+        return status;
+    }
+}
@@ -1,10 +1,14 @@
 package com.helpbridge.model;
 
+import com.helpbridge.util.Money;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donations")
+@Table(name = "donations", uniqueConstraints = {
+        // One donation per gateway order; a repeated callback can't insert a second row
+        @UniqueConstraint(name = "uk_donation_order", columnNames = "razorpay_order_id")
+})
 public class Donation {
 
     @Id
@@ -20,7 +24,7 @@ public class Donation {
     @JoinColumn(name = "campaign_id", nullable = false)
     private HelpPost campaign;
 
-    private Double amount;
+    private Long amountPaise;
 
     private String razorpayPaymentId;
     private String razorpayOrderId;
@@ -36,7 +40,7 @@ public class Donation {
             String status) {
         this.donor = donor;
         this.campaign = campaign;
-        this.amount = amount;
+        this.amountPaise = Money.toPaise(amount);
         this.razorpayPaymentId = razorpayPaymentId;
         this.razorpayOrderId = razorpayOrderId;
         this.status = status;
@@ -68,11 +72,11 @@ public class Donation {
     }
 
     public Double getAmount() {
-        return amount;
+        return Money.toRupees(amountPaise);
     }
 
     public void setAmount(Double amount) {
-        this.amount = amount;
+        this.amountPaise = Money.toPaise(amount);
     }
 
     public String getRazorpayPaymentId() {
@@ -1,5 +1,6 @@
 package com.helpbridge.model;
 
+import com.helpbridge.util.Money;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -23,8 +24,11 @@ public class HelpPost {
     // Status: OPEN, COMPLETED
     private String status = "OPEN";
 
-    private Double targetAmount = 0.0;
-    private Double collectedAmount = 0.0;
+    // Whole paise; exposed in rupees. collectedPaise only moves through atomic UPDATEs,
+    // so saving the entity never writes it back.
+    private Long targetPaise = 0L;
+    @Column(updatable = false)
+    private Long collectedPaise = 0L;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -86,19 +90,19 @@ public class HelpPost {
     }
 
     public Double getTargetAmount() {
-        return targetAmount;
+        return Money.toRupees(targetPaise);
     }
 
     public void setTargetAmount(Double targetAmount) {
-        this.targetAmount = targetAmount;
+        this.targetPaise = Money.toPaise(targetAmount);
     }
 
     public Double getCollectedAmount() {
-        return collectedAmount;
+        return Money.toRupees(collectedPaise);
     }
 
     public void setCollectedAmount(Double collectedAmount) {
-        this.collectedAmount = collectedAmount;
+        this.collectedPaise = Money.toPaise(collectedAmount);
     }
 
     public LocalDateTime getCreatedAt() {
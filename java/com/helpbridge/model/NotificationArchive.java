@@ -0,0 +1,43 @@
+package com.helpbridge.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Cold copy of read notifications moved out of the hot table by the retention job.
+// No foreign key to users so archived rows never block deleting a user.
+@Entity
+@Table(name = "notifications_archive", indexes = {
+        @Index(name = "idx_notif_archive_user", columnList = "user_id, created_at")
+})
+public class NotificationArchive {
+
+    @Id
+    private Long id; // same id the row had in notifications
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
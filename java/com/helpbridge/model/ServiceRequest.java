@@ -1,13 +1,17 @@
 package com.helpbridge.model;
 
 import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.util.Money;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "service_requests")
+@Table(name = "service_requests", indexes = {
+        @Index(name = "idx_sr_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_sr_ngo_created", columnList = "ngo_id, created_at, id")
+})
 public class ServiceRequest {
 
     @Id
@@ -38,10 +42,16 @@ public class ServiceRequest {
 
     private String feedback;
 
-    private Double fundsAllocated = 0.0;
+    // Whole paise, exposed in rupees
+    private Long fundsAllocatedPaise = 0L;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Optimistic lock: every status change and save is checked against the version that was read
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -132,11 +142,11 @@ public class ServiceRequest {
     }
 
     public Double getFundsAllocated() {
-        return fundsAllocated;
+        return Money.toRupees(fundsAllocatedPaise);
     }
 
     public void setFundsAllocated(Double fundsAllocated) {
-        this.fundsAllocated = fundsAllocated;
+        this.fundsAllocatedPaise = Money.toPaise(fundsAllocated);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -146,4 +156,12 @@ public class ServiceRequest {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
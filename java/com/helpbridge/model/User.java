@@ -1,5 +1,6 @@
 package com.helpbridge.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.helpbridge.enums.RoleType;
 import com.helpbridge.enums.UserStatus;
 import jakarta.persistence.*;
@@ -21,6 +22,7 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @JsonIgnore
     @Column(nullable = false)
     private String passwordHash;
 
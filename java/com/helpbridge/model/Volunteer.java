@@ -1,5 +1,6 @@
 package com.helpbridge.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 
@@ -11,6 +12,10 @@ public class Volunteer extends User {
     private String availability;
     private String interests;
 
+    // Times this volunteer turned down an assignment, used when ranking candidates
+    @Column(columnDefinition = "int default 0")
+    private Integer rejectedAssignments = 0;
+
     public String getIdProofPath() {
         return idProofPath;
     }
@@ -34,4 +39,12 @@ public class Volunteer extends User {
     public void setInterests(String interests) {
         this.interests = interests;
     }
+
+    public Integer getRejectedAssignments() {
+        return rejectedAssignments;
+    }
+
+    public void setRejectedAssignments(Integer rejectedAssignments) {
+        this.rejectedAssignments = rejectedAssignments;
+    }
 }
@@ -0,0 +1,95 @@
+package com.helpbridge.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Webhook events that did not fit the in-memory buffer, or failed to apply from it
+@Entity
+@Table(name = "webhook_spill", indexes = {
+        @Index(name = "idx_spill_attempts_next_attempt", columnList = "attempts, next_attempt_at")
+})
+public class WebhookSpill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String eventId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    private int attempts = 0;
+
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public WebhookSpill() {
+    }
+
+    public WebhookSpill(String eventId, String payload) {
+        this.eventId = eventId;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -2,6 +2,10 @@ package com.helpbridge.repository;
 
 import com.helpbridge.model.Donation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface DonationRepository extends JpaRepository<Donation, Long> {
@@ -10,4 +14,24 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
     List<Donation> findByCampaignId(Long campaignId);
 
     Donation findByRazorpayOrderId(String orderId);
+
+    @Query("SELECT COUNT(d), COALESCE(SUM(d.amountPaise), 0) FROM Donation d WHERE d.status = 'SUCCESS'")
+    List<Object[]> summarizeSuccessful();
+
+    // Newest donation id, the point a catalogue read covers up to
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM Donation d")
+    long findMaxId();
+
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM Donation d WHERE d.campaign.id = :campaignId")
+    long findMaxIdByCampaign(@Param("campaignId") Long campaignId);
+
+    // Per campaign since a point in time: paise donated and the latest donation
+    @Query("SELECT d.campaign.id, COALESCE(SUM(d.amountPaise), 0), MAX(d.donationDate) FROM Donation d "
+            + "WHERE d.status = 'SUCCESS' AND d.donationDate >= :since GROUP BY d.campaign.id")
+    List<Object[]> sumSuccessfulSince(@Param("since") LocalDateTime since);
+
+    // The ledger side of campaign totals: paise collected per campaign
+    @Query("SELECT d.campaign.id, COALESCE(SUM(d.amountPaise), 0) FROM Donation d WHERE d.status = 'SUCCESS' "
+            + "GROUP BY d.campaign.id")
+    List<Object[]> sumSuccessfulByCampaign();
 }
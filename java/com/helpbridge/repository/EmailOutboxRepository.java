@@ -0,0 +1,36 @@
+package com.helpbridge.repository;
+
+import com.helpbridge.enums.OutboxStatus;
+import com.helpbridge.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited on
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("status") OutboxStatus status,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.helpbridge.enums.OutboxStatus.SENT, e.sentAt = :sentAt, "
+            + "e.lastError = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.helpbridge.enums.OutboxStatus.PENDING, e.attempts = 0, "
+            + "e.nextAttemptAt = :now WHERE e.status = com.helpbridge.enums.OutboxStatus.DEAD")
+    int requeueDead(@Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxStatus status);
+}
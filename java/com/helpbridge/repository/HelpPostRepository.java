@@ -1,8 +1,15 @@
 package com.helpbridge.repository;
 
+import com.helpbridge.dto.CampaignSummary;
 import com.helpbridge.model.HelpPost;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface HelpPostRepository extends JpaRepository<HelpPost, Long> {
     List<HelpPost> findByNgoId(Long ngoId);
@@ -10,4 +17,40 @@ public interface HelpPostRepository extends JpaRepository<HelpPost, Long> {
     List<HelpPost> findByCity(String city);
 
     List<HelpPost> findByStatus(String status);
+
+    // Increment in the database; concurrent donations each add their own amount
+    @Modifying
+    @Transactional
+    @Query("UPDATE HelpPost p SET p.collectedPaise = COALESCE(p.collectedPaise, 0) + :paise WHERE p.id = :id")
+    int addCollected(@Param("id") Long id, @Param("paise") long paise);
+
+    // Status only, so completing a post cannot write back a stale collectedPaise
+    @Modifying
+    @Transactional
+    @Query("UPDATE HelpPost p SET p.status = 'COMPLETED' WHERE p.id = :id")
+    int markCompleted(@Param("id") Long id);
+
+    String SUMMARY_SELECT = "SELECT new com.helpbridge.dto.CampaignSummary(p.id, p.title, p.description, "
+            + "p.category, p.city, p.status, p.targetPaise, p.collectedPaise, p.createdAt, n.id, n.fullName) "
+            + "FROM HelpPost p JOIN p.ngo n";
+
+    @Query(SUMMARY_SELECT + " ORDER BY p.id")
+    List<CampaignSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + " WHERE p.id = :id")
+    Optional<CampaignSummary> findSummary(@Param("id") Long id);
+
+    @Query("SELECT p.id, p.collectedPaise FROM HelpPost p")
+    List<Object[]> findCollectedTotals();
+
+    // Reconcile fix: recompute from the ledger, but only while both sides still
+    // hold the values the caller compared; otherwise a donation moved in between
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE help_posts SET collected_paise = (SELECT COALESCE(SUM(d.amount_paise), 0) "
+            + "FROM donations d WHERE d.campaign_id = :id AND d.status = 'SUCCESS') "
+            + "WHERE id = :id AND COALESCE(collected_paise, 0) = :seen "
+            + "AND (SELECT COALESCE(SUM(d.amount_paise), 0) FROM donations d "
+            + "WHERE d.campaign_id = :id AND d.status = 'SUCCESS') = :ledger", nativeQuery = true)
+    int recomputeCollected(@Param("id") Long id, @Param("seen") long seen, @Param("ledger") long ledger);
 }
@@ -1,11 +1,56 @@
 package com.helpbridge.repository;
 
+import com.helpbridge.dto.NotificationView;
 import com.helpbridge.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // One statement instead of the derived delete, which loads and removes rows one by one
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Newest first, keyset on id so each page is an index range scan
+    @Query("SELECT new com.helpbridge.dto.NotificationView(n.id, n.message, n.isRead, n.createdAt) "
+            + "FROM Notification n WHERE n.user.id = :userId AND n.id < :beforeId ORDER BY n.id DESC")
+    List<NotificationView> findPage(@Param("userId") Long userId, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    // Served from idx_notif_user_read_created without touching the rows
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
+    long countUnread(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false "
+            + "AND n.id IN :ids")
+    int markRead(@Param("userId") Long userId, @Param("ids") List<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
+
+    // Next chunk of read notifications past retention, walked along idx_notif_read_created
+    @Query(value = "SELECT id FROM notifications WHERE is_read = true AND created_at < :cutoff "
+            + "ORDER BY created_at LIMIT :limit", nativeQuery = true)
+    List<Long> findReadBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive (id, user_id, message, created_at, archived_at) "
+            + "SELECT id, user_id, message, created_at, :now FROM notifications WHERE id IN (:ids)",
+            nativeQuery = true)
+    int archive(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
 
-    void deleteByUserId(Long userId);
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
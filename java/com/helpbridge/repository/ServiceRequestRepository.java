@@ -1,12 +1,137 @@
 package com.helpbridge.repository;
 
+import com.helpbridge.dto.ServiceRequestSummary;
 import com.helpbridge.enums.RequestStatus;
 import com.helpbridge.model.ServiceRequest;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ServiceRequestRepository extends JpaRepository<ServiceRequest, Long> {
     List<ServiceRequest> findByStudentId(Long studentId);
     List<ServiceRequest> findByVolunteerId(Long volunteerId);
     List<ServiceRequest> findByCityAndStatus(String city, RequestStatus status);
+
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    List<ServiceRequest> findByIdInAndStatus(java.util.Collection<Long> ids, RequestStatus status);
+
+    // Oldest first along idx_sr_status_created, for batch auto-assignment
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    List<ServiceRequest> findByStatusOrderByCreatedAtAsc(RequestStatus status, Pageable pageable);
+
+    // Assignments each volunteer is currently holding
+    @Query("SELECT r.volunteer.id, COUNT(r) FROM ServiceRequest r WHERE r.status IN :statuses "
+            + "AND r.volunteer IS NOT NULL GROUP BY r.volunteer.id")
+    List<Object[]> countOpenByVolunteer(@Param("statuses") List<RequestStatus> statuses);
+
+    // Requests are placed on the map at their student's registered position
+    @Query("SELECT r.id, s.latitude, s.longitude FROM ServiceRequest r JOIN r.student s WHERE r.status = :status "
+            + "AND s.latitude IS NOT NULL AND s.longitude IS NOT NULL")
+    List<Object[]> findLocationsByStatus(@Param("status") RequestStatus status);
+
+    @Query("SELECT s.latitude, s.longitude FROM ServiceRequest r JOIN r.student s WHERE r.id = :id")
+    List<Object[]> findLocation(@Param("id") Long id);
+
+    // Keyset pages for the NGO dashboard, newest first. Each one walks its own
+    // (status, created_at) / (ngo_id, created_at) index.
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    @Query("SELECT r FROM ServiceRequest r WHERE r.status = :status "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ServiceRequest> findPageByStatus(@Param("status") RequestStatus status,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    @Query("SELECT r FROM ServiceRequest r WHERE r.ngo.id = :ngoId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ServiceRequest> findPageByNgo(@Param("ngoId") Long ngoId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    List<ServiceRequest> findByStatusOrderByCreatedAtDesc(RequestStatus status);
+
+    @EntityGraph(attributePaths = { "student", "volunteer", "ngo" })
+    List<ServiceRequest> findByNgoIdOrderByCreatedAtDesc(Long ngoId);
+
+    @Query("SELECT r.status, COUNT(r) FROM ServiceRequest r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+
+    String SUMMARY_SELECT = "SELECT new com.helpbridge.dto.ServiceRequestSummary(r.id, r.description, r.city, "
+            + "r.location, r.status, r.requestDate, r.requestTime, r.fundsAllocatedPaise, r.createdAt, "
+            + "s.id, s.fullName, v.id, v.fullName, n.id, n.fullName) "
+            + "FROM ServiceRequest r JOIN r.student s LEFT JOIN r.volunteer v LEFT JOIN r.ngo n ";
+
+    @Query(SUMMARY_SELECT + "WHERE r.id < :beforeId ORDER BY r.id DESC")
+    List<ServiceRequestSummary> findSummaries(@Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Text and filter fields for the search index, in id order after afterId
+    @Query("SELECT r.id, r.description, r.location, r.city, r.status FROM ServiceRequest r "
+            + "WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findSearchRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Cursor for exports: with useCursorFetch on the MySQL URL rows arrive 500 at a time
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY r.id DESC")
+    Stream<ServiceRequestSummary> streamSummaries();
+
+    // Adds in the database so concurrent allocations can't overwrite each other. The version
+    // bump makes any entity copy read before this one fail its optimistic check on save.
+    @Modifying
+    @Transactional
+    @Query("UPDATE ServiceRequest r SET r.fundsAllocatedPaise = COALESCE(r.fundsAllocatedPaise, 0) + :paise, "
+            + "r.version = r.version + 1 WHERE r.id = :id")
+    int addFunds(@Param("id") Long id, @Param("paise") long paise);
+
+    // Set-based cascade for user deletion. Each statement comes in two forms:
+    // all of a user's requests at once, or one chunk of ids for the background mode.
+
+    @Query("SELECT r.status, COUNT(r) FROM ServiceRequest r WHERE r.volunteer.id = :volunteerId GROUP BY r.status")
+    List<Object[]> countByVolunteerGroupedByStatus(@Param("volunteerId") Long volunteerId);
+
+    @Query("SELECT r.status, COUNT(r) FROM ServiceRequest r WHERE r.student.id = :studentId GROUP BY r.status")
+    List<Object[]> countByStudentGroupedByStatus(@Param("studentId") Long studentId);
+
+    @Query("SELECT r.status, COUNT(r) FROM ServiceRequest r WHERE r.id IN :ids GROUP BY r.status")
+    List<Object[]> countByIdInGroupedByStatus(@Param("ids") List<Long> ids);
+
+    // Drops the volunteer and sends work in flight back to the pool, in one pass
+    @Modifying
+    @Query("UPDATE ServiceRequest r SET r.volunteer = null, r.version = r.version + 1, "
+            + "r.status = CASE WHEN r.status IN :reset THEN :pending ELSE r.status END "
+            + "WHERE r.volunteer.id = :volunteerId")
+    int releaseVolunteer(@Param("volunteerId") Long volunteerId, @Param("reset") List<RequestStatus> reset,
+            @Param("pending") RequestStatus pending);
+
+    @Modifying
+    @Query("UPDATE ServiceRequest r SET r.volunteer = null, r.version = r.version + 1, "
+            + "r.status = CASE WHEN r.status IN :reset THEN :pending ELSE r.status END "
+            + "WHERE r.id IN :ids")
+    int releaseVolunteerByIdIn(@Param("ids") List<Long> ids, @Param("reset") List<RequestStatus> reset,
+            @Param("pending") RequestStatus pending);
+
+    @Modifying
+    @Query("DELETE FROM ServiceRequest r WHERE r.student.id = :studentId")
+    int deleteByStudent(@Param("studentId") Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM ServiceRequest r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    @Query(value = "SELECT id FROM service_requests WHERE volunteer_id = :volunteerId LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsByVolunteer(@Param("volunteerId") Long volunteerId, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM service_requests WHERE student_id = :studentId LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByStudent(@Param("studentId") Long studentId, @Param("limit") int limit);
 }
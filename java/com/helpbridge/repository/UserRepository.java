@@ -1,10 +1,19 @@
 package com.helpbridge.repository;
 
+import com.helpbridge.dto.UserSummary;
 import com.helpbridge.enums.RoleType;
 import com.helpbridge.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
@@ -18,4 +27,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByRole(RoleType role);
 
     long countByRoleAndStatus(RoleType role, com.helpbridge.enums.UserStatus status);
+
+    // Native so the joined subclass tables are not dragged into the count
+    @Query(value = "SELECT role, status, COUNT(*) FROM users GROUP BY role, status", nativeQuery = true)
+    List<Object[]> countGroupedByRoleAndStatus();
+
+    @Query(value = "SELECT email FROM users WHERE status IN (:statuses)", nativeQuery = true)
+    List<String> findEmailsByStatusIn(@Param("statuses") List<String> statuses);
+
+    @Query("SELECT u.latitude, u.longitude, u.role, u.status FROM User u WHERE u.id = :id")
+    List<Object[]> findLocation(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET password_hash = :hash WHERE id = :id", nativeQuery = true)
+    int updatePasswordHash(@Param("id") Long id, @Param("hash") String hash);
+
+    String SUMMARY_SELECT = "SELECT new com.helpbridge.dto.UserSummary(u.id, u.fullName, u.email, u.phoneNumber, "
+            + "u.role, u.status, u.city, u.createdAt) FROM User u ";
+
+    @Query(SUMMARY_SELECT + "WHERE u.id < :beforeId AND (:role IS NULL OR u.role = :role) ORDER BY u.id DESC")
+    List<UserSummary> findSummaries(@Param("beforeId") Long beforeId, @Param("role") RoleType role,
+            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY u.id DESC")
+    Stream<UserSummary> streamSummaries();
 }
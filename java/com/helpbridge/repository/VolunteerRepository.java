@@ -1,8 +1,40 @@
 package com.helpbridge.repository;
 
+import com.helpbridge.enums.UserStatus;
 import com.helpbridge.model.Volunteer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface VolunteerRepository extends JpaRepository<Volunteer, Long> {
     java.util.List<Volunteer> findByCity(String city);
+
+    // Keyset page of volunteers in a city, ordered by id so the next page starts after the last id seen
+    @Query("SELECT v FROM Volunteer v WHERE v.city = :city AND v.id > :afterId ORDER BY v.id")
+    java.util.List<Volunteer> findPageByCity(@Param("city") String city, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // id, latitude, longitude of every volunteer with a known position, for the geo index
+    @Query("SELECT v.id, v.latitude, v.longitude FROM Volunteer v WHERE v.status = :status "
+            + "AND v.latitude IS NOT NULL AND v.longitude IS NOT NULL")
+    java.util.List<Object[]> findLocationsByStatus(@Param("status") UserStatus status);
+
+    @Query("SELECT v.email FROM Volunteer v WHERE v.id IN :ids")
+    java.util.List<String> findEmailsByIdIn(@Param("ids") java.util.List<Long> ids);
+
+    String PROFILE_SELECT = "SELECT v.id, v.latitude, v.longitude, v.city, v.availability, v.interests, "
+            + "v.rejectedAssignments FROM Volunteer v ";
+
+    // Matching profiles of every approved volunteer
+    @Query(PROFILE_SELECT + "WHERE v.status = :status")
+    java.util.List<Object[]> findProfilesByStatus(@Param("status") UserStatus status);
+
+    @Query(PROFILE_SELECT + "WHERE v.id = :id")
+    java.util.List<Object[]> findProfile(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Volunteer v SET v.rejectedAssignments = COALESCE(v.rejectedAssignments, 0) + 1 WHERE v.id = :id")
+    int incrementRejectedAssignments(@Param("id") Long id);
 }
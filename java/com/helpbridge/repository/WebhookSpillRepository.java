@@ -0,0 +1,22 @@
+package com.helpbridge.repository;
+
+import com.helpbridge.model.WebhookSpill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookSpillRepository extends JpaRepository<WebhookSpill, Long> {
+
+    // Rows locked by another instance are skipped rather than waited on
+    @Query(value = "SELECT * FROM webhook_spill WHERE attempts < :maxAttempts AND next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WebhookSpill> claimDue(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+            @Param("limit") int limit);
+
+    long countByAttemptsLessThan(int attempts);
+
+    long countByAttemptsGreaterThanEqual(int attempts);
+}
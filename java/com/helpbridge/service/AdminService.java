@@ -1,14 +1,28 @@
 package com.helpbridge.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.helpbridge.dto.AdminDashboardSummary;
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.UserSummary;
+import com.helpbridge.enums.RequestStatus;
 import com.helpbridge.enums.RoleType;
 import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.RequestCountsAdjustedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
 import com.helpbridge.model.User;
 import com.helpbridge.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class AdminService {
@@ -28,10 +42,39 @@ public class AdminService {
     @Autowired
     private com.helpbridge.util.DataSeeder dataSeeder;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    public CursorPage<UserSummary> getUserSummaries(RoleType role, Long beforeId, int size) {
+        List<UserSummary> items = userRepository.findSummaries(beforeId == null ? Long.MAX_VALUE : beforeId, role,
+                PageRequest.of(0, size));
+        String next = items.size() < size ? null : String.valueOf(items.get(items.size() - 1).getId());
+        return new CursorPage<>(items, next);
+    }
+
+    // Writes every user as one JSON object per line while the cursor is read
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Stream<UserSummary> rows = userRepository.streamSummaries()) {
+            Iterator<UserSummary> it = rows.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
     public List<User> getUsersByRole(RoleType role) {
         return userRepository.findByRole(role);
     }
@@ -43,11 +86,11 @@ public class AdminService {
         return userRepository.findByRoleAndCityIgnoreCase(role, city);
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void approveUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setStatus(UserStatus.Approved);
-        userRepository.save(user);
+        changeStatus(user, UserStatus.Approved);
 
         String subject = "HelpBridge Account Approved";
         String body = "Dear " + user.getFullName() + ",\n\n" +
@@ -57,11 +100,11 @@ public class AdminService {
         emailService.sendEmail(user.getEmail(), subject, body);
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void rejectUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setStatus(UserStatus.Rejected);
-        userRepository.save(user);
+        changeStatus(user, UserStatus.Rejected);
 
         String subject = "HelpBridge Account Update";
         String body = "Dear " + user.getFullName() + ",\n\n" +
@@ -74,10 +117,21 @@ public class AdminService {
     public void suspendUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setStatus(UserStatus.Suspended);
+        changeStatus(user, UserStatus.Suspended);
+    }
+
+    private void changeStatus(User user, UserStatus status) {
+        UserStatus previous = user.getStatus();
+        user.setStatus(status);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserLifecycleEvent(UserLifecycleEvent.Type.STATUS_CHANGED, user.getId(),
+                user.getEmail(), user.getRole(), previous, status));
     }
 
+    // In-flight work goes back to PENDING when its volunteer disappears
+    private static final List<RequestStatus> RELEASE_TO_PENDING = List.of(RequestStatus.ACCEPTED,
+            RequestStatus.IN_PROGRESS);
+
     @org.springframework.transaction.annotation.Transactional
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
@@ -87,23 +141,67 @@ public class AdminService {
         notificationRepository.deleteByUserId(userId);
 
         if (user.getRole() == RoleType.Volunteer) {
-            // Unassign references in ServiceRequest
-            List<com.helpbridge.model.ServiceRequest> requests = serviceRequestRepository.findByVolunteerId(userId);
-            for (com.helpbridge.model.ServiceRequest req : requests) {
-                req.setVolunteer(null);
-                if (req.getStatus() == com.helpbridge.enums.RequestStatus.ACCEPTED ||
-                        req.getStatus() == com.helpbridge.enums.RequestStatus.IN_PROGRESS) {
-                    req.setStatus(com.helpbridge.enums.RequestStatus.PENDING);
-                }
-                serviceRequestRepository.save(req);
-            }
+            releaseVolunteerRequests(userId, null);
         } else if (user.getRole() == RoleType.Student) {
             // Delete associated requests because student_id is not nullable
-            List<com.helpbridge.model.ServiceRequest> requests = serviceRequestRepository.findByStudentId(userId);
-            serviceRequestRepository.deleteAll(requests);
+            deleteStudentRequests(userId, null);
         }
 
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserLifecycleEvent(UserLifecycleEvent.Type.DELETED, userId,
+                user.getEmail(), user.getRole(), user.getStatus(), null));
+    }
+
+    /**
+     * Unassigns the volunteer from all their requests (ids == null) or from
+     * the given chunk, resetting accepted and in-progress ones to PENDING in
+     * the same UPDATE. Must run inside a transaction. Returns rows updated.
+     */
+    public int releaseVolunteerRequests(Long volunteerId, List<Long> ids) {
+        List<Object[]> before = ids == null
+                ? serviceRequestRepository.countByVolunteerGroupedByStatus(volunteerId)
+                : serviceRequestRepository.countByIdInGroupedByStatus(ids);
+        int updated = ids == null
+                ? serviceRequestRepository.releaseVolunteer(volunteerId, RELEASE_TO_PENDING, RequestStatus.PENDING)
+                : serviceRequestRepository.releaseVolunteerByIdIn(ids, RELEASE_TO_PENDING, RequestStatus.PENDING);
+
+        Map<RequestStatus, Long> deltas = new EnumMap<>(RequestStatus.class);
+        for (Object[] row : before) {
+            RequestStatus status = (RequestStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            if (RELEASE_TO_PENDING.contains(status)) {
+                deltas.merge(status, -count, Long::sum);
+                deltas.merge(RequestStatus.PENDING, count, Long::sum);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            eventPublisher.publishEvent(new RequestCountsAdjustedEvent(deltas));
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes all of a student's requests (ids == null) or the given chunk
+     * with one DELETE. Must run inside a transaction. Returns rows deleted.
+     */
+    public int deleteStudentRequests(Long studentId, List<Long> ids) {
+        List<Object[]> before = ids == null
+                ? serviceRequestRepository.countByStudentGroupedByStatus(studentId)
+                : serviceRequestRepository.countByIdInGroupedByStatus(ids);
+        int deleted = ids == null
+                ? serviceRequestRepository.deleteByStudent(studentId)
+                : serviceRequestRepository.deleteByIdIn(ids);
+
+        Map<RequestStatus, Long> deltas = new EnumMap<>(RequestStatus.class);
+        for (Object[] row : before) {
+            if (row[0] != null) {
+                deltas.put((RequestStatus) row[0], -((Number) row[1]).longValue());
+            }
+        }
+        if (!deltas.isEmpty()) {
+            eventPublisher.publishEvent(new RequestCountsAdjustedEvent(deltas));
+        }
+        return deleted;
     }
 
     public User getUserById(Long id) {
@@ -111,19 +209,8 @@ public class AdminService {
     }
 
     public AdminDashboardSummary getDashboardSummary() {
-        AdminDashboardSummary.RoleStats s = getStats(RoleType.Student);
-        AdminDashboardSummary.RoleStats v = getStats(RoleType.Volunteer);
-        AdminDashboardSummary.RoleStats n = getStats(RoleType.NGO);
-        AdminDashboardSummary.RoleStats d = getStats(RoleType.Donor);
-        return new AdminDashboardSummary(s, v, n, d);
-    }
-
-    private AdminDashboardSummary.RoleStats getStats(RoleType role) {
-        long total = userRepository.countByRole(role);
-        System.out.println("Stats for " + role + ": Total=" + total);
-        long approved = userRepository.countByRoleAndStatus(role, UserStatus.Approved);
-        long pending = userRepository.countByRoleAndStatus(role, UserStatus.Pending);
-        return new AdminDashboardSummary.RoleStats(total, approved, pending);
+        // Served from in-memory counters kept current by domain events
+        return dashboardCounterService.getSummary();
     }
 
     public String seedData() {
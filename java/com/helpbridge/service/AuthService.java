@@ -5,14 +5,14 @@ import com.helpbridge.dto.LoginRequest;
 import com.helpbridge.dto.RegisterRequest;
 import com.helpbridge.enums.RoleType;
 import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.UserLifecycleEvent;
 import com.helpbridge.model.*;
 import com.helpbridge.repository.*;
 import com.helpbridge.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -45,10 +45,10 @@ public class AuthService {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private ApplicationEventPublisher eventPublisher;
 
     // Define upload directory
     private final Path fileStorageLocation;
@@ -71,11 +71,12 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        final User user = userRepository.findByEmail(request.getEmail()).orElseThrow();
+        // One lookup, then the BCrypt check on the dedicated hashing pool
+        final User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        String hash = user != null ? user.getPasswordHash() : null;
+        if (!passwordHashingService.matches(request.getPassword(), hash)) {
+            throw new BadCredentialsException("Bad credentials");
+        }
 
         // Check if user is approved (skip check for Admins if needed, though Admins
         // should be approved)
@@ -90,7 +91,9 @@ public class AuthService {
             }
         }
 
-        final String jwt = jwtUtil.generateToken(userDetails.getUsername(), user.getRole().toString());
+        passwordHashingService.upgradeIfNeeded(user.getId(), request.getPassword(), hash);
+
+        final String jwt = jwtUtil.generateToken(user.getEmail(), user.getRole().toString());
 
         return new AuthResponse(jwt, user.getFullName(), user.getId(), user.getEmail(), user.getRole().toString());
     }
@@ -160,6 +163,8 @@ public class AuthService {
         }
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserLifecycleEvent(UserLifecycleEvent.Type.REGISTERED, user.getId(),
+                user.getEmail(), role, null, user.getStatus()));
     }
 
     private String saveFile(MultipartFile file) throws IOException {
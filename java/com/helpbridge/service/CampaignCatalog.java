@@ -0,0 +1,309 @@
+package com.helpbridge.service;
+
+import com.helpbridge.dto.CampaignSummary;
+import com.helpbridge.event.DonationRecordedEvent;
+import com.helpbridge.repository.DonationRepository;
+import com.helpbridge.repository.HelpPostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Read side of /api/help-posts. All campaigns live in an immutable snapshot
+ * with indexes by city, category, status and NGO and two precomputed
+ * rankings; readers take the current snapshot and never touch the database.
+ * Writers build a new snapshot and swap it in. Donations are folded in
+ * every delta-interval-ms from DonationRecordedEvent, a created or completed
+ * post is reloaded on its own, and a full reload every full-refresh-ms
+ * picks up anything else (reconcile fixes, renamed NGOs) and moves the
+ * recent-donations window along. A reload remembers the highest donation id
+ * its read covered; queued donations at or below it are already in the
+ * snapshot and are dropped instead of being added twice.
+ */
+@Service
+public class CampaignCatalog {
+
+    @Autowired
+    private HelpPostRepository helpPostRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${helpbridge.catalog.recent-window-hours:24}")
+    private long recentWindowHours;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(List.of(), 0));
+    private final Queue<DonationRecordedEvent> pendingDonations = new ConcurrentLinkedQueue<>();
+    // Writers hold this across their database reads; a lock rather than
+    // synchronized so a virtual thread waiting on JDBC does not pin its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Highest donation id covered by the last full read, and by single-campaign reads since; guarded by writeLock
+    private volatile long readThrough;
+    private final Map<Long, Long> campaignReadThrough = new HashMap<>();
+
+    private final AtomicLong fullRefreshes = new AtomicLong();
+    private final AtomicLong deltaRefreshes = new AtomicLong();
+    private volatile LocalDateTime lastFullRefresh;
+
+    public List<CampaignSummary> list(String city, String category, String status, Long ngoId) {
+        Snapshot current = snapshot.get();
+        // Start from the narrowest index that applies, then filter by the others
+        List<CampaignSummary> base = current.all;
+        if (ngoId != null) {
+            base = smaller(base, current.byNgo.getOrDefault(ngoId, List.of()));
+        }
+        if (city != null) {
+            base = smaller(base, current.byCity.getOrDefault(key(city), List.of()));
+        }
+        if (category != null) {
+            base = smaller(base, current.byCategory.getOrDefault(key(category), List.of()));
+        }
+        if (status != null) {
+            base = smaller(base, current.byStatus.getOrDefault(key(status), List.of()));
+        }
+        if (ngoId == null && city == null && category == null && status == null) {
+            return base;
+        }
+        Stream<CampaignSummary> result = base.stream();
+        if (ngoId != null) {
+            result = result.filter(c -> ngoId.equals(c.getNgoId()));
+        }
+        if (city != null) {
+            result = result.filter(c -> key(city).equals(key(c.getCity())));
+        }
+        if (category != null) {
+            result = result.filter(c -> key(category).equals(key(c.getCategory())));
+        }
+        if (status != null) {
+            result = result.filter(c -> key(status).equals(key(c.getStatus())));
+        }
+        return result.toList();
+    }
+
+    // Open campaigns only: the closest to their target, or the most donated to in the recent window
+    public List<CampaignSummary> top(String by, int limit) {
+        Snapshot current = snapshot.get();
+        List<CampaignSummary> ranking = "recent".equalsIgnoreCase(by) ? current.byRecentDonations : current.byProgress;
+        return ranking.subList(0, Math.min(Math.max(limit, 0), ranking.size()));
+    }
+
+    public CampaignSummary get(Long id) {
+        return snapshot.get().byId.get(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpbridge.catalog.full-refresh-ms:300000}",
+            initialDelayString = "${helpbridge.catalog.full-refresh-ms:300000}")
+    public void reload() {
+        writeLock.lock();
+        try {
+            // Hot-campaign increments that already committed go into collected_paise first
+            campaignTotalsService.flush();
+            Map<Long, Object[]> recent = new HashMap<>();
+            List<CampaignSummary> campaigns = new ArrayList<>();
+            // The id watermark and the totals come from one snapshot, so a donation
+            // is either in the totals read here or above the watermark, never both
+            long maxId = snapshotRead().execute(status -> {
+                for (Object[] row : donationRepository.sumSuccessfulSince(
+                        LocalDateTime.now().minusHours(recentWindowHours))) {
+                    recent.put((Long) row[0], row);
+                }
+                for (CampaignSummary campaign : helpPostRepository.findAllSummaries()) {
+                    Object[] row = recent.get(campaign.getId());
+                    campaigns.add(row == null ? campaign
+                            : campaign.withDonations(0, ((Number) row[1]).longValue(), (LocalDateTime) row[2]));
+                }
+                return donationRepository.findMaxId();
+            });
+            readThrough = maxId;
+            campaignReadThrough.clear();
+            pendingDonations.removeIf(this::covered);
+            snapshot.set(Snapshot.of(campaigns, snapshot.get().version + 1));
+            lastFullRefresh = LocalDateTime.now();
+            fullRefreshes.incrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Reloads one campaign after it was created or changed. */
+    public void refresh(Long campaignId) {
+        writeLock.lock();
+        try {
+            campaignTotalsService.flush();
+            long[] maxId = new long[1];
+            Optional<CampaignSummary> summary = snapshotRead().execute(status -> {
+                maxId[0] = donationRepository.findMaxIdByCampaign(campaignId);
+                return helpPostRepository.findSummary(campaignId);
+            });
+            campaignReadThrough.merge(campaignId, maxId[0], Math::max);
+            summary.ifPresent(fresh -> {
+                Snapshot current = snapshot.get();
+                CampaignSummary old = current.byId.get(campaignId);
+                CampaignSummary next = old == null ? fresh : fresh.withRecentOf(old);
+                List<CampaignSummary> campaigns = new ArrayList<>(current.all);
+                if (old == null) {
+                    campaigns.add(next);
+                } else {
+                    campaigns.replaceAll(c -> c.getId().equals(campaignId) ? next : c);
+                }
+                snapshot.set(Snapshot.of(campaigns, current.version + 1));
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDonationRecorded(DonationRecordedEvent event) {
+        pendingDonations.add(event);
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.catalog.delta-interval-ms:1000}")
+    public void applyDonations() {
+        if (pendingDonations.isEmpty())
+            return;
+        writeLock.lock();
+        try {
+            Map<Long, Long> deltas = new HashMap<>();
+            DonationRecordedEvent event;
+            while ((event = pendingDonations.poll()) != null) {
+                if (!covered(event)) {
+                    deltas.merge(event.getCampaignId(), event.getAmountPaise(), Long::sum);
+                }
+            }
+            if (deltas.isEmpty())
+                return;
+            LocalDateTime now = LocalDateTime.now();
+            Snapshot current = snapshot.get();
+            List<CampaignSummary> campaigns = new ArrayList<>(current.all.size());
+            for (CampaignSummary campaign : current.all) {
+                Long paise = deltas.get(campaign.getId());
+                campaigns.add(paise == null ? campaign : campaign.withDonations(paise, paise, now));
+            }
+            snapshot.set(Snapshot.of(campaigns, current.version + 1));
+            deltaRefreshes.incrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Already part of the snapshot through a reload or refresh read. Caller holds writeLock.
+    private boolean covered(DonationRecordedEvent event) {
+        if (event.getDonationId() == null)
+            return false;
+        long watermark = Math.max(readThrough, campaignReadThrough.getOrDefault(event.getCampaignId(), 0L));
+        return event.getDonationId() <= watermark;
+    }
+
+    private TransactionTemplate snapshotRead() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return template;
+    }
+
+    private static List<CampaignSummary> smaller(List<CampaignSummary> a, List<CampaignSummary> b) {
+        return b.size() < a.size() ? b : a;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("campaigns", current.all.size());
+        stats.put("version", current.version);
+        stats.put("cities", current.byCity.size());
+        stats.put("categories", current.byCategory.size());
+        stats.put("pendingDonations", pendingDonations.size());
+        stats.put("readThroughDonationId", readThrough);
+        stats.put("fullRefreshes", fullRefreshes.get());
+        stats.put("deltaRefreshes", deltaRefreshes.get());
+        stats.put("lastFullRefresh", lastFullRefresh);
+        return stats;
+    }
+
+    private static class Snapshot {
+        private final long version;
+        private final List<CampaignSummary> all;
+        private final Map<Long, CampaignSummary> byId;
+        private final Map<String, List<CampaignSummary>> byCity;
+        private final Map<String, List<CampaignSummary>> byCategory;
+        private final Map<String, List<CampaignSummary>> byStatus;
+        private final Map<Long, List<CampaignSummary>> byNgo;
+        private final List<CampaignSummary> byProgress;
+        private final List<CampaignSummary> byRecentDonations;
+
+        private Snapshot(long version, List<CampaignSummary> all) {
+            this.version = version;
+            this.all = all;
+            Map<Long, CampaignSummary> ids = new HashMap<>();
+            all.forEach(c -> ids.put(c.getId(), c));
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byCity = index(all, c -> key(c.getCity()));
+            this.byCategory = index(all, c -> key(c.getCategory()));
+            this.byStatus = index(all, c -> key(c.getStatus()));
+            this.byNgo = index(all, CampaignSummary::getNgoId);
+            List<CampaignSummary> open = byStatus.getOrDefault("open", List.of());
+            this.byProgress = open.stream()
+                    .sorted(Comparator.comparingDouble(CampaignSummary::getProgress).reversed()).toList();
+            this.byRecentDonations = open.stream().filter(c -> c.getRecentDonations() > 0)
+                    .sorted(Comparator.comparingDouble(CampaignSummary::getRecentDonations).reversed()).toList();
+        }
+
+        static Snapshot of(List<CampaignSummary> campaigns, long version) {
+            List<CampaignSummary> sorted = new ArrayList<>(campaigns);
+            sorted.sort(Comparator.comparing(CampaignSummary::getId));
+            return new Snapshot(version, List.copyOf(sorted));
+        }
+
+        private static <K> Map<K, List<CampaignSummary>> index(List<CampaignSummary> all,
+                Function<CampaignSummary, K> keyOf) {
+            Map<K, List<CampaignSummary>> building = new HashMap<>();
+            for (CampaignSummary c : all) {
+                K k = keyOf.apply(c);
+                if (k != null) {
+                    building.computeIfAbsent(k, x -> new ArrayList<>()).add(c);
+                }
+            }
+            Map<K, List<CampaignSummary>> index = new HashMap<>();
+            building.forEach((k, list) -> index.put(k, List.copyOf(list)));
+            return Collections.unmodifiableMap(index);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.helpbridge.service;
+
+import com.helpbridge.repository.DonationRepository;
+import com.helpbridge.repository.HelpPostRepository;
+import com.helpbridge.util.StripedLongCounter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns help_posts.collected_paise. Normally every donation adds to it with a
+ * single UPDATE inside the donation's transaction. A campaign that received
+ * at least hot-threshold donations in the last flush window is treated as
+ * hot: its increments are collected in memory after commit and written as
+ * one UPDATE per flush, so a burst of donors doesn't queue on one row lock.
+ * The donations table stays the source of truth; reconcile() compares the
+ * two.
+ */
+@Service
+public class CampaignTotalsService {
+
+    @Autowired
+    private HelpPostRepository helpPostRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 0 turns the in-memory path off
+    @Value("${helpbridge.donations.hot-threshold:0}")
+    private int hotThreshold;
+
+    @Value("${helpbridge.donations.stripes:8}")
+    private int stripes;
+
+    private final Map<Long, StripedLongCounter> pending = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> windowCounts = new ConcurrentHashMap<>();
+    private volatile Set<Long> hot = Set.of();
+
+    private final AtomicLong directUpdates = new AtomicLong();
+    private final AtomicLong deferredAdds = new AtomicLong();
+    private final AtomicLong flushUpdates = new AtomicLong();
+
+    /**
+     * Adds a donation to its campaign's total. Call from inside the
+     * transaction that writes the donation row, after that row is saved.
+     */
+    public void add(Long campaignId, long paise) {
+        if (hotThreshold <= 0) {
+            increment(campaignId, paise);
+            return;
+        }
+        windowCounts.computeIfAbsent(campaignId, k -> new AtomicInteger()).incrementAndGet();
+        if (!hot.contains(campaignId) || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(campaignId, paise);
+            return;
+        }
+        // Only money whose donation row committed reaches the accumulator
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.computeIfAbsent(campaignId, k -> new StripedLongCounter(stripes)).add(paise);
+                deferredAdds.incrementAndGet();
+            }
+        });
+    }
+
+    private void increment(Long campaignId, long paise) {
+        if (helpPostRepository.addCollected(campaignId, paise) == 0) {
+            throw new RuntimeException("Campaign not found");
+        }
+        directUpdates.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.donations.flush-interval-ms:1000}")
+    public void flush() {
+        for (Map.Entry<Long, StripedLongCounter> entry : pending.entrySet()) {
+            long paise = entry.getValue().drain();
+            if (paise == 0)
+                continue;
+            try {
+                helpPostRepository.addCollected(entry.getKey(), paise);
+                flushUpdates.incrementAndGet();
+            } catch (Exception e) {
+                // Put it back for the next run rather than lose it
+                entry.getValue().add(paise);
+                System.err.println("Could not flush totals for campaign " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        if (hotThreshold > 0) {
+            Set<Long> next = new HashSet<>();
+            windowCounts.forEach((id, count) -> {
+                if (count.getAndSet(0) >= hotThreshold) {
+                    next.add(id);
+                }
+            });
+            windowCounts.values().removeIf(count -> count.get() == 0);
+            hot = next;
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    /**
+     * Compares every campaign's collected total with the sum of its successful
+     * donations and lists the ones that differ. Pending in-memory increments
+     * are flushed first and both sides are read in one repeatable-read
+     * transaction. With fix, each mismatch is recomputed from the ledger by a
+     * guarded UPDATE that does nothing if either side moved since the read.
+     * Hot campaigns and ones with unflushed increments are reported but never
+     * fixed: their total legitimately trails the ledger.
+     */
+    public Map<String, Object> reconcile(boolean fix) {
+        flush();
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Map<Long, Long> ledger = new HashMap<>();
+        List<Object[]> totals = snapshot.execute(status -> {
+            for (Object[] row : donationRepository.sumSuccessfulByCampaign()) {
+                ledger.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            return helpPostRepository.findCollectedTotals();
+        });
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        int fixed = 0;
+        for (Object[] row : totals) {
+            Long id = (Long) row[0];
+            long collected = row[1] == null ? 0 : ((Number) row[1]).longValue();
+            long expected = ledger.getOrDefault(id, 0L);
+            if (collected == expected)
+                continue;
+            Map<String, Object> mismatch = new LinkedHashMap<>();
+            mismatch.put("campaignId", id);
+            mismatch.put("collectedPaise", collected);
+            mismatch.put("ledgerPaise", expected);
+            mismatches.add(mismatch);
+            if (!fix)
+                continue;
+            StripedLongCounter unflushed = pending.get(id);
+            if (hot.contains(id) || (unflushed != null && unflushed.sum() != 0)) {
+                mismatch.put("fixed", false);
+                mismatch.put("reason", "campaign is taking donations, try again");
+            } else if (helpPostRepository.recomputeCollected(id, collected, expected) == 1) {
+                mismatch.put("fixed", true);
+                fixed++;
+            } else {
+                mismatch.put("fixed", false);
+                mismatch.put("reason", "changed since read, try again");
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("campaigns", totals.size());
+        report.put("mismatches", mismatches);
+        report.put("fixed", fixed);
+        return report;
+    }
+
+    public Map<String, Object> getStats() {
+        long pendingPaise = 0;
+        for (StripedLongCounter counter : pending.values()) {
+            pendingPaise += counter.sum();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hotThreshold", hotThreshold);
+        stats.put("hotCampaigns", hot.size());
+        stats.put("pendingPaise", pendingPaise);
+        stats.put("directUpdates", directUpdates.get());
+        stats.put("deferredAdds", deferredAdds.get());
+        stats.put("flushUpdates", flushUpdates.get());
+        return stats;
+    }
+}
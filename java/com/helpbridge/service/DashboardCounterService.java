@@ -0,0 +1,210 @@
+package com.helpbridge.service;
+
+import com.helpbridge.dto.AdminDashboardSummary;
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.DonationRecordedEvent;
+import com.helpbridge.event.RequestCountsAdjustedEvent;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
+import com.helpbridge.repository.DonationRepository;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.repository.UserRepository;
+import com.helpbridge.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory counters behind the admin dashboard. They are bumped from domain
+ * events as users and requests change and periodically replaced by a fresh
+ * set loaded from a handful of GROUP BY queries, so a dashboard load never
+ * touches the database. The fresh set is built on the side and published
+ * with one volatile write, so readers never see it half filled and events
+ * that land on the old set while it loads are not counted twice (the queries
+ * already see them). One that commits just after its query ran is missed
+ * until the next reconcile.
+ */
+@Service
+public class DashboardCounterService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    private volatile Counters counters = new Counters();
+
+    private volatile boolean loaded;
+
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    public AdminDashboardSummary getSummary() {
+        if (!loaded) {
+            reconcile();
+        }
+        Counters c = counters;
+        AdminDashboardSummary summary = new AdminDashboardSummary(c.roleStats(RoleType.Student),
+                c.roleStats(RoleType.Volunteer), c.roleStats(RoleType.NGO), c.roleStats(RoleType.Donor));
+
+        Map<String, Long> requests = new LinkedHashMap<>();
+        c.requestsByStatus.forEach((status, count) -> requests.put(status.name(), count.get()));
+        summary.setRequestsByStatus(requests);
+        summary.setDonationCount(c.donationCount.get());
+        summary.setDonationTotal(Money.toRupees(c.donationTotalPaise.sum()));
+        return summary;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpbridge.dashboard.reconcile-interval-ms:300000}",
+            initialDelayString = "${helpbridge.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        // A lock rather than synchronized: this holds across JDBC calls and
+        // would pin the carrier thread when running on virtual threads
+        reconcileLock.lock();
+        try {
+            reload();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void reload() {
+        Counters fresh = new Counters();
+        for (Object[] row : userRepository.countGroupedByRoleAndStatus()) {
+            if (row[0] == null)
+                continue;
+            RoleType role = RoleType.valueOf((String) row[0]);
+            long count = ((Number) row[2]).longValue();
+            fresh.usersByRole.get(role).addAndGet(count);
+            if (row[1] != null) {
+                fresh.usersByRoleAndStatus.get(role).get(UserStatus.valueOf((String) row[1])).addAndGet(count);
+            }
+        }
+
+        for (Object[] row : requestRepository.countGroupedByStatus()) {
+            if (row[0] != null) {
+                fresh.requestsByStatus.get((RequestStatus) row[0]).set(((Number) row[1]).longValue());
+            }
+        }
+
+        Object[] donations = donationRepository.summarizeSuccessful().get(0);
+        fresh.donationCount.set(((Number) donations[0]).longValue());
+        fresh.donationTotalPaise.add(((Number) donations[1]).longValue());
+
+        counters = fresh;
+        loaded = true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getRole() == null)
+            return;
+        Counters c = counters;
+        Map<UserStatus, AtomicLong> byStatus = c.usersByRoleAndStatus.get(event.getRole());
+        switch (event.getType()) {
+            case REGISTERED:
+                c.usersByRole.get(event.getRole()).incrementAndGet();
+                break;
+            case DELETED:
+                c.usersByRole.get(event.getRole()).decrementAndGet();
+                break;
+            default:
+                break;
+        }
+        if (event.getPreviousStatus() != null) {
+            byStatus.get(event.getPreviousStatus()).decrementAndGet();
+        }
+        if (event.getStatus() != null) {
+            byStatus.get(event.getStatus()).incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ServiceRequestCreatedEvent event) {
+        RequestStatus status = event.getRequest().getStatus();
+        if (status != null) {
+            counters.requestsByStatus.get(status).incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus())
+            return;
+        Counters c = counters;
+        if (event.getPreviousStatus() != null) {
+            c.requestsByStatus.get(event.getPreviousStatus()).decrementAndGet();
+        }
+        if (event.getStatus() != null) {
+            c.requestsByStatus.get(event.getStatus()).incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestDeleted(ServiceRequestDeletedEvent event) {
+        if (event.getStatus() != null) {
+            counters.requestsByStatus.get(event.getStatus()).decrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCountsAdjusted(RequestCountsAdjustedEvent event) {
+        Counters c = counters;
+        event.getDeltas().forEach((status, delta) -> c.requestsByStatus.get(status).addAndGet(delta));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDonation(DonationRecordedEvent event) {
+        Counters c = counters;
+        c.donationCount.incrementAndGet();
+        c.donationTotalPaise.add(event.getAmountPaise());
+    }
+
+    // One complete set of counters. The maps never change shape, only their counters move.
+    private static class Counters {
+        private final Map<RoleType, AtomicLong> usersByRole = new EnumMap<>(RoleType.class);
+        private final Map<RoleType, Map<UserStatus, AtomicLong>> usersByRoleAndStatus = new EnumMap<>(RoleType.class);
+        private final Map<RequestStatus, AtomicLong> requestsByStatus = new EnumMap<>(RequestStatus.class);
+        private final AtomicLong donationCount = new AtomicLong();
+        private final LongAdder donationTotalPaise = new LongAdder();
+
+        Counters() {
+            for (RoleType role : RoleType.values()) {
+                usersByRole.put(role, new AtomicLong());
+                Map<UserStatus, AtomicLong> byStatus = new EnumMap<>(UserStatus.class);
+                for (UserStatus status : UserStatus.values()) {
+                    byStatus.put(status, new AtomicLong());
+                }
+                usersByRoleAndStatus.put(role, byStatus);
+            }
+            for (RequestStatus status : RequestStatus.values()) {
+                requestsByStatus.put(status, new AtomicLong());
+            }
+        }
+
+        AdminDashboardSummary.RoleStats roleStats(RoleType role) {
+            Map<UserStatus, AtomicLong> byStatus = usersByRoleAndStatus.get(role);
+            return new AdminDashboardSummary.RoleStats(usersByRole.get(role).get(),
+                    byStatus.get(UserStatus.Approved).get(), byStatus.get(UserStatus.Pending).get());
+        }
+    }
+}
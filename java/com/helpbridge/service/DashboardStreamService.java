@@ -0,0 +1,372 @@
+package com.helpbridge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.DonationRecordedEvent;
+import com.helpbridge.event.RequestCountsAdjustedEvent;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
+import com.helpbridge.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes admin dashboard changes to open admin tabs over Server-Sent Events.
+ * A new subscriber gets one "snapshot" frame built from the in-memory
+ * counters; after that, domain events are collected and flushed once per
+ * push window as a single "delta" frame, so a burst of registrations costs
+ * one write per tab instead of one per change. Nothing here reads the
+ * database, so admin load no longer grows with the number of open tabs.
+ */
+@Service
+public class DashboardStreamService {
+
+    @Autowired
+    private DashboardCounterService counterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${helpbridge.dashboard.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${helpbridge.dashboard.heartbeat-ms:20000}")
+    private long heartbeatMs;
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    // Tabs whose snapshot is being written; deltas flushed meanwhile are held for them
+    private final Map<SseEmitter, List<Frame>> joining = new ConcurrentHashMap<>();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final Queue<Map<String, Object>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long lastSentAt = System.currentTimeMillis();
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong changesPushed = new AtomicLong();
+
+    /**
+     * The tab is registered before its snapshot is taken. Changes still
+     * pending at that point are flushed first (they are already in the
+     * counters), so the snapshot sits exactly at a sequence number; every
+     * delta after it is held for the tab and sent once the snapshot is out.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emitter.onCompletion(() -> remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(emitter));
+
+        Object snapshot;
+        long snapshotSeq;
+        sendLock.lock();
+        try {
+            flushPending();
+            joining.put(emitter, new ArrayList<>());
+            snapshot = counterService.getSummary();
+            snapshotSeq = sequence.get();
+        } finally {
+            sendLock.unlock();
+        }
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").id(String.valueOf(snapshotSeq))
+                    .data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            joining.remove(emitter);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        sendLock.lock();
+        try {
+            List<Frame> missed = joining.remove(emitter);
+            if (missed == null)
+                return emitter; // closed while the snapshot was being written
+            for (Frame frame : missed) {
+                emitter.send(SseEmitter.event().name(frame.name).id(String.valueOf(frame.seq))
+                        .data(frame.json, MediaType.APPLICATION_JSON));
+            }
+            subscribers.add(emitter);
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        } finally {
+            sendLock.unlock();
+        }
+        return emitter;
+    }
+
+    private void remove(SseEmitter emitter) {
+        subscribers.remove(emitter);
+        joining.remove(emitter);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        Map<String, Object> change = change("USER_" + event.getType().name());
+        change.put("userId", event.getUserId());
+        change.put("role", event.getRole());
+        change.put("from", event.getPreviousStatus());
+        change.put("to", event.getStatus());
+        enqueue(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ServiceRequestCreatedEvent event) {
+        Map<String, Object> change = change("REQUEST_CREATED");
+        change.put("requestId", event.getRequest().getId());
+        change.put("to", event.getRequest().getStatus());
+        enqueue(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus())
+            return;
+        Map<String, Object> change = change("REQUEST_STATUS_CHANGED");
+        change.put("requestId", event.getRequestId());
+        change.put("from", event.getPreviousStatus());
+        change.put("to", event.getStatus());
+        enqueue(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestDeleted(ServiceRequestDeletedEvent event) {
+        Map<String, Object> change = change("REQUEST_DELETED");
+        change.put("requestId", event.getRequestId());
+        change.put("from", event.getStatus());
+        enqueue(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCountsAdjusted(RequestCountsAdjustedEvent event) {
+        Map<String, Object> change = change("REQUESTS_ADJUSTED");
+        change.put("deltas", event.getDeltas());
+        enqueue(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDonation(DonationRecordedEvent event) {
+        Map<String, Object> change = change("DONATION_RECORDED");
+        change.put("campaignId", event.getCampaignId());
+        change.put("amount", event.getAmount());
+        change.put("amountPaise", event.getAmountPaise());
+        enqueue(change);
+    }
+
+    private Map<String, Object> change(String type) {
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("type", type);
+        return change;
+    }
+
+    private void enqueue(Map<String, Object> change) {
+        // Nobody is watching, the next subscriber starts from a snapshot anyway
+        if (!subscribers.isEmpty() || !joining.isEmpty()) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Coalescing window: everything that arrived since the last run goes out
+     * as one frame, serialized once and written to every subscriber.
+     */
+    @Scheduled(fixedDelayString = "${helpbridge.dashboard.push-window-ms:1000}")
+    public void flush() {
+        sendLock.lock();
+        try {
+            if (!flushPending() && !subscribers.isEmpty()
+                    && System.currentTimeMillis() - lastSentAt >= heartbeatMs) {
+                // Keeps proxies from closing an idle stream and flushes out dead tabs
+                broadcast(null, null, null);
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    // Caller holds sendLock. Returns whether a delta frame was produced.
+    private boolean flushPending() {
+        List<Map<String, Object>> changes = new ArrayList<>();
+        Map<String, Object> change;
+        while ((change = pending.poll()) != null) {
+            changes.add(change);
+        }
+
+        if (changes.isEmpty() || (subscribers.isEmpty() && joining.isEmpty()))
+            return false;
+
+        Map<String, Object> frame = buildDelta(changes);
+        long seq = sequence.incrementAndGet();
+        frame.put("seq", seq);
+        try {
+            String json = objectMapper.writeValueAsString(frame);
+            joining.values().forEach(missed -> missed.add(new Frame("delta", seq, json)));
+            broadcast("delta", String.valueOf(seq), json);
+            changesPushed.addAndGet(changes.size());
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not serialize dashboard delta: " + e.getMessage());
+        }
+        return true;
+    }
+
+    // The counters are reconciled from the database on this schedule; resync open tabs with them
+    @Scheduled(fixedDelayString = "${helpbridge.dashboard.reconcile-interval-ms:300000}",
+            initialDelayString = "${helpbridge.dashboard.reconcile-interval-ms:300000}")
+    public void resync() {
+        if (subscribers.isEmpty())
+            return;
+        sendLock.lock();
+        try {
+            flushPending();
+            broadcast("snapshot", String.valueOf(sequence.get()),
+                    objectMapper.writeValueAsString(counterService.getSummary()));
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not serialize dashboard snapshot: " + e.getMessage());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void broadcast(String name, String id, String json) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                if (json == null) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    emitter.send(SseEmitter.event().name(name).id(id).data(json, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Tab went away; the container will also call onError/onCompletion
+                subscribers.remove(emitter);
+            }
+        }
+        lastSentAt = System.currentTimeMillis();
+        framesSent.incrementAndGet();
+    }
+
+    /**
+     * Folds a batch of changes into per-key increments the client can add to
+     * its snapshot: role totals and approved/pending counts, requests per
+     * status, donation count and total. The raw changes ride along for
+     * activity feeds.
+     */
+    private Map<String, Object> buildDelta(List<Map<String, Object>> changes) {
+        Map<String, Map<String, Long>> roles = new LinkedHashMap<>();
+        Map<String, Long> requests = new LinkedHashMap<>();
+        long donationCount = 0;
+        long donationPaise = 0;
+
+        for (Map<String, Object> change : changes) {
+            String type = (String) change.get("type");
+            if (type.startsWith("USER_")) {
+                String key = roleKey((RoleType) change.get("role"));
+                if (key == null)
+                    continue;
+                Map<String, Long> role = roles.computeIfAbsent(key, k -> new LinkedHashMap<>());
+                if (type.equals("USER_REGISTERED")) {
+                    role.merge("total", 1L, Long::sum);
+                } else if (type.equals("USER_DELETED")) {
+                    role.merge("total", -1L, Long::sum);
+                }
+                addStatus(role, (UserStatus) change.get("from"), -1);
+                addStatus(role, (UserStatus) change.get("to"), 1);
+            } else if (type.equals("REQUESTS_ADJUSTED")) {
+                @SuppressWarnings("unchecked")
+                Map<RequestStatus, Long> deltas = (Map<RequestStatus, Long>) change.get("deltas");
+                deltas.forEach((status, delta) -> requests.merge(status.name(), delta, Long::sum));
+            } else if (type.startsWith("REQUEST_")) {
+                RequestStatus from = (RequestStatus) change.get("from");
+                RequestStatus to = (RequestStatus) change.get("to");
+                if (from != null) {
+                    requests.merge(from.name(), -1L, Long::sum);
+                }
+                if (to != null) {
+                    requests.merge(to.name(), 1L, Long::sum);
+                }
+            } else if (type.equals("DONATION_RECORDED")) {
+                donationCount++;
+                donationPaise += (Long) change.get("amountPaise");
+            }
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("roles", roles);
+        frame.put("requestsByStatus", requests);
+        frame.put("donationCount", donationCount);
+        frame.put("donationTotal", Money.toRupees(donationPaise));
+        frame.put("changes", changes);
+        return frame;
+    }
+
+    private void addStatus(Map<String, Long> role, UserStatus status, long delta) {
+        if (status == UserStatus.Approved) {
+            role.merge("approved", delta, Long::sum);
+        } else if (status == UserStatus.Pending) {
+            role.merge("pending", delta, Long::sum);
+        }
+    }
+
+    // Matches the property names of AdminDashboardSummary
+    private String roleKey(RoleType role) {
+        if (role == null)
+            return null;
+        switch (role) {
+            case Student:
+                return "students";
+            case Volunteer:
+                return "volunteers";
+            case NGO:
+                return "ngos";
+            case Donor:
+                return "donors";
+            default:
+                return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("joining", joining.size());
+        stats.put("pendingChanges", pending.size());
+        stats.put("framesSent", framesSent.get());
+        stats.put("changesPushed", changesPushed.get());
+        stats.put("lastSeq", sequence.get());
+        return stats;
+    }
+
+    private static final class Frame {
+        private final String name;
+        private final long seq;
+        private final String json;
+
+        private Frame(String name, long seq, String json) {
+            this.name = name;
+            this.seq = seq;
+            this.json = json;
+        }
+    }
+}
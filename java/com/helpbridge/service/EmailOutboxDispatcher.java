@@ -0,0 +1,152 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.OutboxStatus;
+import com.helpbridge.model.EmailOutbox;
+import com.helpbridge.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the email_outbox table. Rows are claimed with SKIP LOCKED and leased
+ * for a short time so several instances can dispatch side by side; the SMTP
+ * work happens outside any database transaction.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${helpbridge.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${helpbridge.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${helpbridge.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    @Value("${helpbridge.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Scheduled(fixedDelayString = "${helpbridge.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<EmailOutbox> batch;
+        do {
+            // Stop waiting for SMTP a little before the lease runs out, so a
+            // slow batch can never be marked after another instance reclaimed it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(leaseSeconds) * 9 / 10;
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                deliver(batch, deadline);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> rows = outboxRepository.claimDue(now, batchSize);
+            if (!rows.isEmpty()) {
+                List<Long> ids = rows.stream().map(EmailOutbox::getId).toList();
+                outboxRepository.lease(ids, OutboxStatus.SENDING, now.plusSeconds(leaseSeconds));
+            }
+            return rows;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> batch, long deadline) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(batch.size());
+        for (EmailOutbox mail : batch) {
+            results.add(emailService.deliver(mail.getRecipient(), mail.getSubject(), mail.getBody(),
+                    mail.getReplyTo(), mail.getAttachmentPath()));
+        }
+
+        List<Long> sent = new ArrayList<>();
+        List<EmailOutbox> failed = new ArrayList<>();
+        int unfinished = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox mail = batch.get(i);
+            try {
+                results.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.add(mail.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // lease expires and the rows are picked up again
+            } catch (TimeoutException e) {
+                // Still in flight: leave it SENDING, it is retried once the lease expires
+                unfinished++;
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                mail.setLastError(truncate(cause.getMessage()));
+                failed.add(mail);
+            }
+        }
+        if (unfinished > 0) {
+            System.err.println(unfinished + " of " + batch.size()
+                    + " outbox emails still sending at the lease deadline, left for retry");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!sent.isEmpty()) {
+                outboxRepository.markSent(sent, now);
+            }
+            for (EmailOutbox mail : failed) {
+                int attempts = mail.getAttempts() + 1;
+                mail.setAttempts(attempts);
+                if (attempts >= maxAttempts) {
+                    mail.setStatus(OutboxStatus.DEAD);
+                    System.err.println("Email to " + mail.getRecipient() + " moved to dead letter after "
+                            + attempts + " attempts: " + mail.getLastError());
+                } else {
+                    mail.setStatus(OutboxStatus.PENDING);
+                    mail.setNextAttemptAt(now.plusSeconds(backoffSeconds(attempts)));
+                }
+                outboxRepository.save(mail);
+            }
+        });
+    }
+
+    // Fits the lastError column, so one long SMTP error cannot fail the whole mark transaction
+    private String truncate(String error) {
+        String message = String.valueOf(error);
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    // 30s, 1m, 2m, 4m ... capped at 6 hours
+    private long backoffSeconds(int attempts) {
+        long backoff = baseBackoffSeconds << Math.min(attempts - 1, 20);
+        return Math.min(backoff, TimeUnit.HOURS.toSeconds(6));
+    }
+
+    public int requeueDead() {
+        return transactionTemplate.execute(status -> outboxRepository.requeueDead(LocalDateTime.now()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (OutboxStatus status : OutboxStatus.values()) {
+            stats.put(status.name().toLowerCase(), outboxRepository.countByStatus(status));
+        }
+        return stats;
+    }
+}
@@ -1,13 +1,19 @@
 package com.helpbridge.service;
 
+import com.helpbridge.model.EmailOutbox;
+import com.helpbridge.repository.EmailOutboxRepository;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class EmailService {
@@ -15,47 +21,62 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private MailDeliveryEngine deliveryEngine;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
     public void sendEmail(String to, String subject, String body) {
         sendEmail(to, subject, body, null);
     }
 
+    // Mail is recorded in the outbox as part of the caller's transaction and
+    // delivered later by EmailOutboxDispatcher, so callers never wait on SMTP.
+    @Transactional
     public void sendEmail(String to, String subject, String body, String replyTo) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, false);
+        outboxRepository.save(new EmailOutbox(to, subject, body, replyTo, null));
+    }
 
-            helper.setFrom("helpbridge02@gmail.com", "HelpBridge Support");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body);
-            if (replyTo != null) {
-                helper.setReplyTo(replyTo);
-            }
+    @Transactional
+    public void sendEmailWithAttachment(String to, String subject, String body, String pathToAttachment) {
+        outboxRepository.save(new EmailOutbox(to, subject, body, null, pathToAttachment));
+    }
 
-            mailSender.send(message);
-            System.out.println("Email sent successfully to " + to);
-        } catch (Exception e) {
-            System.err.println("Error sending email to " + to + ": " + e.getMessage());
+    // Same message to many recipients, written in one transaction
+    @Transactional
+    public void sendEmails(List<String> recipients, String subject, String body) {
+        List<EmailOutbox> rows = new ArrayList<>(recipients.size());
+        for (String to : recipients) {
+            rows.add(new EmailOutbox(to, subject, body, null, null));
         }
+        outboxRepository.saveAll(rows);
     }
 
-    public void sendEmailWithAttachment(String to, String subject, String body, String pathToAttachment) {
+    // Builds the message and hands it to the pooled SMTP engine. The future
+    // completes when the server has accepted the mail.
+    public CompletableFuture<Void> deliver(String to, String subject, String body, String replyTo,
+            String pathToAttachment) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            boolean multipart = pathToAttachment != null;
+            MimeMessageHelper helper = new MimeMessageHelper(message, multipart);
 
-            helper.setFrom("helpbridge02@gmail.com", "HelpBridge NGO Team");
+            helper.setFrom("helpbridge02@gmail.com", multipart ? "HelpBridge NGO Team" : "HelpBridge Support");
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(body);
+            if (replyTo != null) {
+                helper.setReplyTo(replyTo);
+            }
+            if (multipart) {
+                FileSystemResource file = new FileSystemResource(new File(pathToAttachment));
+                helper.addAttachment(file.getFilename(), file);
+            }
 
-            FileSystemResource file = new FileSystemResource(new File(pathToAttachment));
-            helper.addAttachment(file.getFilename(), file);
-
-            mailSender.send(message);
-            System.out.println("Email with attachment sent successfully to " + to);
+            return deliveryEngine.submit(message);
         } catch (Exception e) {
-            System.err.println("Error sending email with attachment to " + to + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
         }
     }
 }
@@ -0,0 +1,213 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.repository.UserRepository;
+import com.helpbridge.repository.VolunteerRepository;
+import com.helpbridge.util.GeoGridIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps two spatial indexes in memory: approved volunteers at their
+ * registered position, and pending requests at their student's position.
+ * Both are kept current from domain events and rebuilt from the database
+ * periodically, which also picks up anything an event could not describe
+ * (bulk status changes). Events that arrive while a rebuild is loading are
+ * replayed onto the new indexes before they are swapped in. Results are
+ * candidates; callers re-check status against the database where it matters.
+ */
+@Service
+public class GeoMatchingService {
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // 0.1 degree is roughly 11 km north-south, about the size of a city district
+    @Value("${helpbridge.geo.cell-degrees:0.1}")
+    private double cellDegrees;
+
+    @Value("${helpbridge.geo.max-radius-km:200}")
+    private double maxRadiusKm;
+
+    private volatile GeoGridIndex volunteers = new GeoGridIndex(0.1);
+    private volatile GeoGridIndex openRequests = new GeoGridIndex(0.1);
+    // Changes as (volunteers, openRequests) -> void; non-null while a rebuild is running, guarded by this
+    private List<BiConsumer<GeoGridIndex, GeoGridIndex>> replay;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong totalQueryNanos = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpbridge.geo.rebuild-interval-ms:600000}",
+            initialDelayString = "${helpbridge.geo.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true))
+            return;
+        try {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            GeoGridIndex v = new GeoGridIndex(cellDegrees);
+            for (Object[] row : volunteerRepository.findLocationsByStatus(UserStatus.Approved)) {
+                v.put((Long) row[0], (Double) row[1], (Double) row[2]);
+            }
+            GeoGridIndex r = new GeoGridIndex(cellDegrees);
+            for (Object[] row : requestRepository.findLocationsByStatus(RequestStatus.PENDING)) {
+                r.put((Long) row[0], (Double) row[1], (Double) row[2]);
+            }
+            synchronized (this) {
+                replay.forEach(change -> change.accept(v, r));
+                volunteers = v;
+                openRequests = r;
+                replay = null;
+            }
+            System.out.println("Geo index rebuilt: " + v.size() + " volunteers, " + r.size() + " open requests");
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+            }
+            System.err.println("Geo index rebuild failed: " + e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private synchronized void apply(BiConsumer<GeoGridIndex, GeoGridIndex> change) {
+        change.accept(volunteers, openRequests);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    public List<GeoGridIndex.Hit> volunteersWithin(double lat, double lon, double radiusKm) {
+        long start = System.nanoTime();
+        List<GeoGridIndex.Hit> hits = volunteers.withinRadius(lat, lon, Math.min(radiusKm, maxRadiusKm));
+        record(start);
+        return hits;
+    }
+
+    public List<GeoGridIndex.Hit> nearestVolunteers(double lat, double lon, int k) {
+        long start = System.nanoTime();
+        List<GeoGridIndex.Hit> hits = volunteers.nearest(lat, lon, k, maxRadiusKm);
+        record(start);
+        return hits;
+    }
+
+    public List<GeoGridIndex.Hit> openRequestsWithin(double lat, double lon, double radiusKm) {
+        long start = System.nanoTime();
+        List<GeoGridIndex.Hit> hits = openRequests.withinRadius(lat, lon, Math.min(radiusKm, maxRadiusKm));
+        record(start);
+        return hits;
+    }
+
+    // Position of a volunteer, from the index or, if not indexed (e.g. not approved), from the users table
+    public double[] volunteerLocation(Long volunteerId) {
+        double[] p = volunteers.get(volunteerId);
+        if (p != null)
+            return p;
+        List<Object[]> rows = userRepository.findLocation(volunteerId);
+        return rows.isEmpty() ? null : point(rows.get(0));
+    }
+
+    public double[] requestLocation(Long requestId) {
+        double[] p = openRequests.get(requestId);
+        if (p != null)
+            return p;
+        List<Object[]> rows = requestRepository.findLocation(requestId);
+        return rows.isEmpty() ? null : point(rows.get(0));
+    }
+
+    private double[] point(Object[] row) {
+        if (row[0] == null || row[1] == null)
+            return null;
+        return new double[] { (Double) row[0], (Double) row[1] };
+    }
+
+    private void record(long startNanos) {
+        queries.incrementAndGet();
+        totalQueryNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getRole() != RoleType.Volunteer)
+            return;
+        Long userId = event.getUserId();
+        if (event.getStatus() != UserStatus.Approved) {
+            apply((v, r) -> v.remove(userId));
+            return;
+        }
+        List<Object[]> rows = userRepository.findLocation(userId);
+        double[] p = rows.isEmpty() ? null : point(rows.get(0));
+        if (p != null) {
+            apply((v, r) -> v.put(userId, p[0], p[1]));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ServiceRequestCreatedEvent event) {
+        if (event.getRequest().getStatus() == RequestStatus.PENDING) {
+            indexRequest(event.getRequest().getId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        if (event.getStatus() == RequestStatus.PENDING) {
+            indexRequest(event.getRequestId());
+        } else {
+            apply((v, r) -> r.remove(event.getRequestId()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestDeleted(ServiceRequestDeletedEvent event) {
+        apply((v, r) -> r.remove(event.getRequestId()));
+    }
+
+    private void indexRequest(Long requestId) {
+        List<Object[]> rows = requestRepository.findLocation(requestId);
+        double[] p = rows.isEmpty() ? null : point(rows.get(0));
+        if (p != null) {
+            apply((v, r) -> r.put(requestId, p[0], p[1]));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long n = queries.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("volunteers", volunteers.size());
+        stats.put("openRequests", openRequests.size());
+        stats.put("queries", n);
+        stats.put("avgQueryMicros", n == 0 ? 0 : totalQueryNanos.get() / n / 1000.0);
+        return stats;
+    }
+}
@@ -1,11 +1,17 @@
 package com.helpbridge.service;
 
+import com.helpbridge.event.DonationRecordedEvent;
+import com.helpbridge.model.Donation;
 import com.helpbridge.model.HelpPost;
 import com.helpbridge.model.NGO;
+import com.helpbridge.repository.DonationRepository;
 import com.helpbridge.repository.HelpPostRepository;
 import com.helpbridge.repository.NGORepository;
+import com.helpbridge.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
@@ -17,12 +23,30 @@ public class HelpPostService {
     @Autowired
     private NGORepository ngoRepository;
 
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CampaignCatalog campaignCatalog;
+
+    @Autowired
+    private SearchService searchService;
+
     public HelpPost createPost(HelpPost post, Long ngoId) {
         NGO ngo = ngoRepository.findById(ngoId)
                 .orElseThrow(() -> new RuntimeException("NGO not found"));
         post.setNgo(ngo);
         post.setCity(ngo.getCity()); // Default to NGO city
-        return helpPostRepository.save(post);
+        HelpPost saved = helpPostRepository.save(post);
+        campaignCatalog.refresh(saved.getId());
+        searchService.indexPost(saved);
+        return saved;
     }
 
     public List<HelpPost> getAllPosts() {
@@ -38,16 +62,31 @@ public class HelpPostService {
     }
 
     public void completePost(Long postId) {
-        HelpPost post = helpPostRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        post.setStatus("COMPLETED");
-        helpPostRepository.save(post);
+        if (helpPostRepository.markCompleted(postId) == 0) {
+            throw new RuntimeException("Post not found");
+        }
+        campaignCatalog.refresh(postId);
+        helpPostRepository.findById(postId).ifPresent(searchService::indexPost);
     }
 
+    // Direct donation without a payment gateway. It goes into the donations ledger
+    // like a verified payment so campaign totals reconcile with it.
+    @Transactional
     public void donate(Long postId, Double amount) {
+        long paise = Money.toPaise(amount);
+        if (paise <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
         HelpPost post = helpPostRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
-        post.setCollectedAmount(post.getCollectedAmount() + amount);
-        helpPostRepository.save(post);
+
+        Donation donation = new Donation();
+        donation.setCampaign(post);
+        donation.setAmount(amount);
+        donation.setStatus("SUCCESS");
+        donationRepository.save(donation);
+
+        campaignTotalsService.add(postId, paise);
+        eventPublisher.publishEvent(new DonationRecordedEvent(donation.getId(), postId, null, paise));
     }
 }
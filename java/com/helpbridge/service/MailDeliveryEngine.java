@@ -0,0 +1,202 @@
+package com.helpbridge.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers MimeMessages over a small pool of long-lived SMTP connections.
+ * Each worker owns one Transport, drains whatever is queued (up to the batch
+ * size) and sends it back-to-back on that connection, so the TLS/STARTTLS
+ * handshake and AUTH are paid once per connection instead of once per mail.
+ */
+@Component
+public class MailDeliveryEngine {
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${helpbridge.mail.connections:4}")
+    private int connections;
+
+    @Value("${helpbridge.mail.messages-per-connection:100}")
+    private int messagesPerConnection;
+
+    @Value("${helpbridge.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${helpbridge.mail.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${helpbridge.mail.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    private BlockingQueue<PendingMail> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        // Deliberately platform threads even in virtual-thread mode: Jakarta
+        // Mail's SMTPTransport synchronizes around its socket I/O, which would
+        // pin a carrier per worker, and there are only a handful of them.
+        for (int i = 0; i < connections; i++) {
+            Thread worker = new Thread(this::runWorker, "smtp-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queues a message for delivery. The future completes once the SMTP server
+     * has accepted it, or exceptionally if sending failed.
+     */
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            if (!queue.offer(new PendingMail(message, result), 5, TimeUnit.SECONDS)) {
+                result.completeExceptionally(new IllegalStateException("Mail queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        int sentOnConnection = 0;
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                PendingMail first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // Nothing to do for a while, let the server drop us cleanly
+                    transport = close(transport);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batches.incrementAndGet();
+
+                for (PendingMail mail : batch) {
+                    if (transport == null || !transport.isConnected() || sentOnConnection >= messagesPerConnection) {
+                        transport = close(transport);
+                        transport = connect();
+                        sentOnConnection = 0;
+                    }
+                    try {
+                        MimeMessage message = mail.message;
+                        if (message.getSentDate() == null) {
+                            message.setSentDate(new Date());
+                        }
+                        message.saveChanges();
+                        transport.sendMessage(message, message.getAllRecipients());
+                        sentOnConnection++;
+                        messagesSent.incrementAndGet();
+                        mail.result.complete(null);
+                    } catch (MessagingException e) {
+                        messagesFailed.incrementAndGet();
+                        mail.result.completeExceptionally(e);
+                        // The connection may be in an unknown state, start fresh for the next one
+                        transport = close(transport);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Could not connect: fail what we drained, keep the worker alive
+                for (PendingMail mail : batch) {
+                    if (!mail.result.isDone()) {
+                        messagesFailed.incrementAndGet();
+                        mail.result.completeExceptionally(e);
+                    }
+                }
+                transport = close(transport);
+                System.err.println("SMTP worker error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    private Transport connect() throws MessagingException {
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        openConnections.incrementAndGet();
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // already gone
+            }
+            openConnections.decrementAndGet();
+        }
+        return null;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("openConnections", openConnections.get());
+        stats.put("connectionsOpened", connectionsOpened.get());
+        stats.put("batches", batches.get());
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("messagesFailed", messagesFailed.get());
+        return stats;
+    }
+
+    private static final class PendingMail {
+        private final MimeMessage message;
+        private final CompletableFuture<Void> result;
+
+        private PendingMail(MimeMessage message, CompletableFuture<Void> result) {
+            this.message = message;
+            this.result = result;
+        }
+    }
+}
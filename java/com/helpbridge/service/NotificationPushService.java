@@ -0,0 +1,115 @@
+package com.helpbridge.service;
+
+import com.helpbridge.dto.NotificationView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user Server-Sent Events channels for notifications. A user may have
+ * several tabs open, each gets its own emitter. Frames are "unread" (the
+ * current unread count) and "notification" (a new notification plus the
+ * updated count), so a client never has to poll the history to notice
+ * something new.
+ */
+@Service
+public class NotificationPushService {
+
+    @Value("${helpbridge.notifications.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    private final Map<Long, List<SseEmitter>> channels = new ConcurrentHashMap<>();
+
+    private final AtomicLong pushed = new AtomicLong();
+
+    public SseEmitter subscribe(Long userId, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, emitter));
+        try {
+            emitter.send(SseEmitter.event().name("unread").data(Map.of("unreadCount", unreadCount),
+                    MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        channels.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        return emitter;
+    }
+
+    public boolean isConnected(Long userId) {
+        return channels.containsKey(userId);
+    }
+
+    public void pushNotification(Long userId, NotificationView notification, long unreadCount) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("notification", notification);
+        frame.put("unreadCount", unreadCount);
+        send(userId, "notification", frame);
+    }
+
+    public void pushUnreadCount(Long userId, long unreadCount) {
+        send(userId, "unread", Map.of("unreadCount", unreadCount));
+    }
+
+    public void closeAll(Long userId) {
+        List<SseEmitter> emitters = channels.remove(userId);
+        if (emitters != null) {
+            emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    private void send(Long userId, String name, Object data) {
+        List<SseEmitter> emitters = channels.get(userId);
+        if (emitters == null)
+            return;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+                pushed.incrementAndGet();
+            } catch (IOException | IllegalStateException e) {
+                remove(userId, emitter);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and drops tabs that went away
+    @Scheduled(fixedDelayString = "${helpbridge.notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        channels.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(userId, emitter);
+                }
+            }
+        });
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        channels.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectedUsers", channels.size());
+        stats.put("openStreams", channels.values().stream().mapToInt(List::size).sum());
+        stats.put("pushed", pushed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,130 @@
+package com.helpbridge.service;
+
+import com.helpbridge.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the notifications table down to what users still look at. Read
+ * notifications older than the retention age are deleted, or copied to
+ * notifications_archive first, in small chunks. Each chunk is its own short
+ * transaction so row locks and undo never build up behind a big DELETE.
+ * Unread notifications are never touched.
+ */
+@Service
+public class NotificationRetentionService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${helpbridge.notifications.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${helpbridge.notifications.retention-chunk-size:1000}")
+    private int chunkSize;
+
+    // Pause between chunks so replication and other writers keep up
+    @Value("${helpbridge.notifications.retention-chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Value("${helpbridge.notifications.archive:false}")
+    private boolean archive;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private volatile Map<String, Object> lastReport = Map.of();
+    private final AtomicLong totalRemoved = new AtomicLong();
+    private final AtomicLong totalArchived = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    @Scheduled(cron = "${helpbridge.notifications.retention-cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        compact();
+    }
+
+    /**
+     * Runs one compaction pass and returns its report. A pass already in
+     * progress is not started twice; its caller gets the previous report.
+     */
+    public Map<String, Object> compact() {
+        if (!runLock.tryLock())
+            return lastReport;
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            LocalDateTime cutoff = started.minusDays(retentionDays);
+            long start = System.currentTimeMillis();
+            long removed = 0;
+            long archived = 0;
+            int chunks = 0;
+
+            while (true) {
+                int[] result = transactionTemplate.execute(status -> {
+                    List<Long> ids = notificationRepository.findReadBefore(cutoff, chunkSize);
+                    if (ids.isEmpty())
+                        return new int[] { 0, 0 };
+                    int copied = archive ? notificationRepository.archive(ids, LocalDateTime.now()) : 0;
+                    return new int[] { notificationRepository.deleteByIdIn(ids), copied };
+                });
+                if (result[0] == 0)
+                    break;
+                removed += result[0];
+                archived += result[1];
+                chunks++;
+                if (result[0] < chunkSize)
+                    break;
+                if (chunkPauseMs > 0) {
+                    try {
+                        Thread.sleep(chunkPauseMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            runs.incrementAndGet();
+            totalRemoved.addAndGet(removed);
+            totalArchived.addAndGet(archived);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", started);
+            report.put("cutoff", cutoff);
+            report.put("mode", archive ? "archive" : "delete");
+            report.put("rowsRemoved", removed);
+            report.put("rowsArchived", archived);
+            report.put("chunks", chunks);
+            report.put("millis", elapsed);
+            lastReport = report;
+            System.out.println("Notification compaction: removed " + removed + " read notifications older than "
+                    + cutoff + " in " + chunks + " chunks, " + elapsed + " ms"
+                    + (archive ? " (" + archived + " archived)" : ""));
+            return report;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("retentionDays", retentionDays);
+        stats.put("runs", runs.get());
+        stats.put("totalRemoved", totalRemoved.get());
+        stats.put("totalArchived", totalArchived.get());
+        stats.put("lastRun", lastReport);
+        return stats;
+    }
+}
@@ -1,12 +1,34 @@
 package com.helpbridge.service;
 
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.NotificationView;
+import com.helpbridge.event.NotificationCreatedEvent;
+import com.helpbridge.event.NotificationsCreatedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
 import com.helpbridge.model.Notification;
 import com.helpbridge.model.User;
 import com.helpbridge.repository.NotificationRepository;
 import com.helpbridge.repository.UserRepository;
+import com.helpbridge.util.TtlCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class NotificationService {
@@ -17,15 +39,148 @@ public class NotificationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationPushService pushService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Ids per INSERT ... SELECT, keeps the IN list and packet size reasonable
+    private static final int INSERT_CHUNK = 1000;
+
+    // userId -> unread count. Loaded from the index on first use and then kept
+    // current by creates and mark-reads; the TTL bounds any drift.
+    private final TtlCache<Long, AtomicLong> unreadCounts;
+
+    public NotificationService(@Value("${helpbridge.notifications.unread-cache-ttl-ms:600000}") long ttlMs,
+            @Value("${helpbridge.notifications.unread-cache-max-size:50000}") int maxSize) {
+        this.unreadCounts = new TtlCache<>(ttlMs, maxSize);
+    }
+
     public void createNotification(Long userId, String message) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            Notification notif = new Notification(user, message);
+        // A reference is enough for the foreign key, no need to load the user
+        User user = userRepository.getReferenceById(userId);
+        Notification notif = new Notification(user, message);
+        try {
             notificationRepository.save(notif);
+        } catch (DataIntegrityViolationException e) {
+            // No such user
+            return;
+        }
+        eventPublisher.publishEvent(
+                new NotificationCreatedEvent(notif.getId(), userId, message, notif.getCreatedAt()));
+    }
+
+    /**
+     * Writes the same message for many users with one INSERT ... SELECT per
+     * chunk of ids. Ids that no longer exist are skipped by the SELECT, so no
+     * user is loaded up front. Returns the number of rows written.
+     */
+    @Transactional
+    public int createNotifications(Collection<Long> userIds, String message) {
+        if (userIds.isEmpty())
+            return 0;
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        LocalDateTime now = LocalDateTime.now();
+        int written = 0;
+        for (int from = 0; from < ids.size(); from += INSERT_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + INSERT_CHUNK, ids.size()));
+            Object[] args = new Object[chunk.size() + 2];
+            args[0] = message;
+            args[1] = Timestamp.valueOf(now);
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 2] = chunk.get(i);
+            }
+            written += jdbcTemplate.update(
+                    "INSERT INTO notifications (user_id, message, is_read, created_at) "
+                            + "SELECT id, ?, false, ? FROM users WHERE id IN ("
+                            + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    args);
         }
+        eventPublisher.publishEvent(new NotificationsCreatedEvent(ids, message, now));
+        return written;
+    }
+
+    public CursorPage<NotificationView> getUserNotifications(Long userId, Long beforeId, int size) {
+        List<NotificationView> items = notificationRepository.findPage(userId,
+                beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.of(0, size));
+        String next = items.size() < size ? null : String.valueOf(items.get(items.size() - 1).getId());
+        return new CursorPage<>(items, next);
     }
 
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public long getUnreadCount(Long userId) {
+        return unreadCounter(userId).get();
+    }
+
+    /**
+     * Marks the given notifications as read, or all of them when ids is null
+     * or empty. Returns the user's remaining unread count.
+     */
+    public long markRead(Long userId, List<Long> ids) {
+        int changed = (ids == null || ids.isEmpty())
+                ? notificationRepository.markAllRead(userId)
+                : notificationRepository.markRead(userId, ids);
+        long unread;
+        AtomicLong counter = unreadCounts.get(userId);
+        if (counter == null) {
+            unread = unreadCounter(userId).get();
+        } else {
+            unread = counter.updateAndGet(c -> Math.max(0, c - changed));
+        }
+        if (changed > 0) {
+            pushService.pushUnreadCount(userId, unread);
+        }
+        return unread;
+    }
+
+    private AtomicLong unreadCounter(Long userId) {
+        AtomicLong counter = unreadCounts.get(userId);
+        if (counter == null) {
+            counter = new AtomicLong(notificationRepository.countUnread(userId));
+            unreadCounts.put(userId, counter);
+        }
+        return counter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        // Only bump a counter that is already loaded; otherwise the next read counts it from the index
+        AtomicLong counter = unreadCounts.get(event.getUserId());
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        if (pushService.isConnected(event.getUserId())) {
+            long unread = counter != null ? counter.get() : getUnreadCount(event.getUserId());
+            pushService.pushNotification(event.getUserId(),
+                    new NotificationView(event.getNotificationId(), event.getMessage(), false, event.getCreatedAt()),
+                    unread);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationsCreated(NotificationsCreatedEvent event) {
+        // Rows were written set-based, so pushed notifications carry no id; clients refetch the page if needed
+        NotificationView view = new NotificationView(null, event.getMessage(), false, event.getCreatedAt());
+        for (Long userId : event.getUserIds()) {
+            AtomicLong counter = unreadCounts.get(userId);
+            if (counter != null) {
+                counter.incrementAndGet();
+            }
+            if (pushService.isConnected(userId)) {
+                pushService.pushNotification(userId, view,
+                        counter != null ? counter.get() : getUnreadCount(userId));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getType() == UserLifecycleEvent.Type.DELETED) {
+            unreadCounts.invalidate(event.getUserId());
+            pushService.closeAll(event.getUserId());
+        }
     }
 }
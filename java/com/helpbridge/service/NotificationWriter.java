@@ -0,0 +1,176 @@
+package com.helpbridge.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers notifications and writes them in bulk. Callers enqueue and return
+ * immediately; the buffer is flushed when it reaches the batch size or on a
+ * short timer, whichever comes first. Entries are grouped by message so a
+ * broadcast to a thousand users becomes one INSERT ... SELECT. A group whose
+ * insert fails goes back into the buffer for a later flush; after
+ * max-attempts it is written one row at a time so one bad batch cannot take
+ * its neighbours down with it.
+ */
+@Component
+public class NotificationWriter {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    @Qualifier("fanOutExecutor")
+    private AsyncTaskExecutor executor;
+
+    @Value("${helpbridge.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${helpbridge.notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    private final BlockingQueue<PendingNotification> buffer;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicLong writtenDirectly = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong writtenOneByOne = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    public NotificationWriter(@Value("${helpbridge.notifications.buffer-capacity:20000}") int capacity) {
+        this.buffer = new LinkedBlockingQueue<>(capacity);
+    }
+
+    public void enqueue(Long userId, String message) {
+        if (!buffer.offer(new PendingNotification(userId, message, 0))) {
+            // Full: write synchronously rather than lose it
+            writtenDirectly.incrementAndGet();
+            notificationService.createNotification(userId, message);
+            return;
+        }
+        enqueued.incrementAndGet();
+        if (buffer.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // The timer will pick it up
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    public void enqueueAll(List<Long> userIds, String message) {
+        userIds.forEach(id -> enqueue(id, message));
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.notifications.flush-interval-ms:250}")
+    public void flush() {
+        if (buffer.isEmpty() || !flushLock.tryLock())
+            return;
+        List<PendingNotification> failed = new ArrayList<>();
+        try {
+            List<PendingNotification> drained = new ArrayList<>();
+            while (buffer.drainTo(drained, batchSize) > 0) {
+                long start = System.currentTimeMillis();
+                Map<String, List<PendingNotification>> byMessage = new LinkedHashMap<>();
+                for (PendingNotification n : drained) {
+                    byMessage.computeIfAbsent(n.message, m -> new ArrayList<>()).add(n);
+                }
+                for (Map.Entry<String, List<PendingNotification>> group : byMessage.entrySet()) {
+                    List<Long> userIds = group.getValue().stream().map(n -> n.userId).toList();
+                    try {
+                        written.addAndGet(notificationService.createNotifications(userIds, group.getKey()));
+                        statements.incrementAndGet();
+                    } catch (Exception e) {
+                        System.err.println("Notification flush failed for " + userIds.size()
+                                + " users: " + e.getMessage());
+                        failed.addAll(group.getValue());
+                    }
+                }
+                flushes.incrementAndGet();
+                totalFlushMillis.addAndGet(System.currentTimeMillis() - start);
+                drained.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        // Outside the drain loop so a failing group waits for the next flush instead of spinning
+        failed.forEach(this::retry);
+    }
+
+    private void retry(PendingNotification n) {
+        int attempts = n.attempts + 1;
+        if (attempts < maxAttempts && buffer.offer(new PendingNotification(n.userId, n.message, attempts))) {
+            retried.incrementAndGet();
+            return;
+        }
+        try {
+            notificationService.createNotification(n.userId, n.message);
+            writtenOneByOne.incrementAndGet();
+        } catch (Exception e) {
+            lost.incrementAndGet();
+            System.err.println("Dropping notification for user " + n.userId + " after " + attempts
+                    + " attempts: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        // Failed groups are requeued with one more attempt each time, so this ends
+        for (int i = 0; i <= maxAttempts && !buffer.isEmpty(); i++) {
+            flush();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long n = flushes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buffered", buffer.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("insertStatements", statements.get());
+        stats.put("flushes", n);
+        stats.put("avgFlushMillis", n == 0 ? 0 : totalFlushMillis.get() / n);
+        stats.put("writtenDirectlyWhenFull", writtenDirectly.get());
+        stats.put("retried", retried.get());
+        stats.put("writtenOneByOne", writtenOneByOne.get());
+        stats.put("lost", lost.get());
+        return stats;
+    }
+
+    private static final class PendingNotification {
+        private final Long userId;
+        private final String message;
+        private final int attempts;
+
+        private PendingNotification(Long userId, String message, int attempts) {
+            this.userId = userId;
+            this.message = message;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.helpbridge.service;
+
+import com.helpbridge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt checks on a dedicated, bounded pool so a login burst cannot tie
+ * up every servlet thread. When the pool and its queue are full the call is
+ * refused right away (RejectedExecutionException) instead of queueing forever;
+ * a check that does not finish within hash-timeout-ms is reported the same way.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${helpbridge.login.hash-timeout-ms:5000}")
+    private long timeoutMs;
+
+    // Compared against when the email is unknown, so both paths cost one hash
+    private volatile String dummyHash;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public boolean matches(String rawPassword, String hash) {
+        String target = hash != null ? hash : dummyHash();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long start = System.nanoTime();
+                boolean ok = passwordEncoder.matches(rawPassword, target);
+                long micros = (System.nanoTime() - start) / 1000;
+                checks.incrementAndGet();
+                totalMicros.addAndGet(micros);
+                maxMicros.accumulateAndGet(micros, Math::max);
+                return ok;
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS) && hash != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while checking password");
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Password check did not complete", e);
+        } catch (ExecutionException e) {
+            // A stored hash the encoder cannot read (unknown {id}, malformed) is just a failed login
+            if (e.getCause() instanceof IllegalArgumentException) {
+                System.err.println("Unreadable password hash: " + e.getCause().getMessage());
+                return false;
+            }
+            throw new RuntimeException("Password check failed", e.getCause());
+        }
+    }
+
+    // Re-encodes with the current work factor after a successful login, off the request path
+    public void upgradeIfNeeded(Long userId, String rawPassword, String hash) {
+        if (!passwordEncoder.upgradeEncoding(hash))
+            return;
+        try {
+            executor.execute(() -> {
+                userRepository.updatePasswordHash(userId, passwordEncoder.encode(rawPassword));
+                rehashed.incrementAndGet();
+            });
+        } catch (RejectedExecutionException e) {
+            // Busy, try again on the next login
+        }
+    }
+
+    private String dummyHash() {
+        if (dummyHash == null) {
+            dummyHash = passwordEncoder.encode("dummy-password-for-unknown-users");
+        }
+        return dummyHash;
+    }
+
+    public Map<String, Object> getStats() {
+        long n = checks.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getThreadPoolExecutor().getQueue().size());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("checks", n);
+        stats.put("rejected", rejected.get());
+        stats.put("rehashed", rehashed.get());
+        stats.put("avgHashMicros", n == 0 ? 0 : totalMicros.get() / n);
+        stats.put("maxHashMicros", maxMicros.get());
+        return stats;
+    }
+}
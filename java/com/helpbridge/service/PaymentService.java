@@ -1,35 +1,47 @@
 package com.helpbridge.service;
 
-import com.helpbridge.model.Donation;
-import com.helpbridge.model.HelpPost;
-import com.helpbridge.model.User;
+import com.helpbridge.event.DonationRecordedEvent;
 import com.helpbridge.repository.DonationRepository;
 import com.helpbridge.repository.HelpPostRepository;
 import com.helpbridge.repository.UserRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
+import com.helpbridge.util.Money;
+import com.helpbridge.util.TtlCache;
 import com.razorpay.RazorpayException;
 import com.razorpay.Utils;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class PaymentService {
 
     // Ideally, these should be in application.properties
     // Using placeholder Test Credentials for demonstration
-    @Value("${razorpay.key.id}")
-    private String keyId;
-
     @Value("${razorpay.key.secret}")
     private String keySecret;
 
+    @Autowired
+    private RazorpayGateway razorpayGateway;
+
     @Autowired
     private HelpPostRepository helpPostRepository;
 
@@ -39,30 +51,57 @@ public class PaymentService {
     @Autowired
     private UserRepository userRepository;
 
-    public String createOrder(Long campaignId, Double amount) throws RazorpayException {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    // Through JDBC rather than a repository query: a duplicate key there would mark the
+    // whole transaction rollback-only, here it only fails the one statement
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_DONATION = "INSERT INTO donations (campaign_id, donor_id, amount_paise, "
+            + "razorpay_order_id, razorpay_payment_id, status, donation_date) VALUES (?, ?, ?, ?, ?, 'SUCCESS', ?)";
+
+    // Order ids verified recently; callbacks are usually retried within minutes
+    private final TtlCache<String, Boolean> recentOrders = new TtlCache<>(60 * 60 * 1000L, 10000);
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    // Completes off the request thread; the gateway call never blocks a servlet thread
+    public CompletableFuture<String> createOrderAsync(Long campaignId, Double amount, Long donorId) {
         // MOCK MODE: If keys are default, return a mock order immediately
-        if (keyId == null || keyId.contains("YourKeyHere") || keySecret.contains("YourSecretHere")) {
+        if (razorpayGateway.isMock()) {
             System.out.println("⚠️ Razorpay Keys missing. Using MOCK mode.");
             JSONObject mockOrder = new JSONObject();
-            mockOrder.put("id", "order_mock_" + System.currentTimeMillis());
+            // Order ids are unique in donations, so two mock orders in the same millisecond must differ
+            mockOrder.put("id", "order_mock_" + System.currentTimeMillis() + "_"
+                    + java.util.UUID.randomUUID().toString().substring(0, 8));
             mockOrder.put("entity", "order");
-            mockOrder.put("amount", (int) (amount * 100));
+            mockOrder.put("amount", Money.toPaise(amount));
             mockOrder.put("currency", "INR");
             mockOrder.put("status", "created");
             mockOrder.put("mock", true); // Flag for frontend
-            return mockOrder.toString();
+            return CompletableFuture.completedFuture(mockOrder.toString());
         }
 
-        RazorpayClient razorpay = new RazorpayClient(keyId, keySecret);
-
         JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", (int) (amount * 100)); // Amount in paise
+        orderRequest.put("amount", Money.toPaise(amount)); // Amount in paise
         orderRequest.put("currency", "INR");
         orderRequest.put("receipt", "receipt_" + campaignId + "_" + System.currentTimeMillis());
         orderRequest.put("payment_capture", 1); // Auto capture
+        // Read back from the payment.captured webhook, which may arrive before the browser's verify call
+        JSONObject notes = new JSONObject().put("campaign_id", campaignId);
+        if (donorId != null && userRepository.existsById(donorId)) {
+            notes.put("donor_id", donorId);
+        }
+        orderRequest.put("notes", notes);
 
-        Order order = razorpay.orders.create(orderRequest);
-        return order.toString();
+        return razorpayGateway.createOrderAsync(orderRequest).thenApply(JSONObject::toString);
     }
 
     @Transactional
@@ -89,34 +128,28 @@ public class PaymentService {
             }
 
             if (isValid) {
-                // 2. Prevent Duplicate Processing
-                if (donationRepository.findByRazorpayOrderId(orderId) != null) {
+                if (orderId == null) {
+                    return false;
+                }
+                // 2. Prevent Duplicate Processing: recent keys from memory, the rest from the unique index
+                if (recentOrders.get(orderId) != null) {
+                    cacheHits.incrementAndGet();
                     return true; // Already processed
                 }
 
-                // 3. Save Donation
-                HelpPost campaign = helpPostRepository.findById(campaignId)
-                        .orElseThrow(() -> new RuntimeException("Campaign not found"));
-
-                User donor = null;
-                if (userId != null) {
-                    donor = userRepository.findById(userId).orElse(null);
+                if (!helpPostRepository.existsById(campaignId)) {
+                    throw new RuntimeException("Campaign not found");
                 }
+                Long donorId = userId != null && userRepository.existsById(userId) ? userId : null;
 
-                Donation donation = new Donation();
-                donation.setCampaign(campaign);
-                donation.setDonor(donor);
-                donation.setAmount(amount);
-                donation.setRazorpayOrderId(orderId);
-                donation.setRazorpayPaymentId(paymentId);
-                donation.setStatus("SUCCESS");
-
-                donationRepository.save(donation);
+                // 3. Save Donation, unless this order already has one
+                long paise = Money.toPaise(amount);
+                if (!insertDonation(campaignId, donorId, paise, orderId, paymentId)) {
+                    return true; // Already processed
+                }
 
-                // 4. Update Campaign Collected Amount
-                double current = campaign.getCollectedAmount() == null ? 0 : campaign.getCollectedAmount();
-                campaign.setCollectedAmount(current + amount);
-                helpPostRepository.save(campaign);
+                // 4. Update Campaign Collected Amount (atomic increment, never a read-modify-write)
+                campaignTotalsService.add(campaignId, paise);
 
                 return true;
             } else {
@@ -128,4 +161,70 @@ public class PaymentService {
             return false;
         }
     }
+
+    /**
+     * Writes the donation row for an order unless one exists already, and
+     * publishes DonationRecordedEvent when it does. Returns true if this call
+     * recorded it; the caller then adds the amount to the campaign total.
+     * Only a clash on uk_donation_order counts as already recorded; any other
+     * failure (a missing campaign or donor, the database) is thrown. A
+     * concurrent duplicate waits on the index entry and then clashes.
+     * Must run inside a transaction.
+     */
+    public boolean insertDonation(Long campaignId, Long donorId, long paise, String orderId, String paymentId) {
+        KeyHolder key = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_DONATION, new String[] { "id" });
+                ps.setLong(1, campaignId);
+                if (donorId == null) {
+                    ps.setNull(2, Types.BIGINT);
+                } else {
+                    ps.setLong(2, donorId);
+                }
+                ps.setLong(3, paise);
+                ps.setString(4, orderId);
+                ps.setString(5, paymentId);
+                ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+                return ps;
+            }, key);
+        } catch (DuplicateKeyException e) {
+            duplicates.incrementAndGet();
+            recentOrders.put(orderId, Boolean.TRUE);
+            return false;
+        }
+        Number donationId = key.getKey();
+        eventPublisher.publishEvent(new DonationRecordedEvent(donationId == null ? null : donationId.longValue(),
+                campaignId, donorId, paise));
+        recorded.incrementAndGet();
+        rememberAfterCommit(orderId);
+        return true;
+    }
+
+    public boolean isRecentlyRecorded(String orderId) {
+        return recentOrders.get(orderId) != null;
+    }
+
+    // Cached only once the donation row is committed, so a rolled-back attempt can be retried
+    private void rememberAfterCommit(String orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentOrders.put(orderId, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentOrders.put(orderId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recorded", recorded.get());
+        stats.put("duplicatesIgnored", duplicates.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("gateway", razorpayGateway.getStats());
+        return stats;
+    }
 }
@@ -0,0 +1,266 @@
+package com.helpbridge.service;
+
+import com.helpbridge.util.TtlCache;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the Razorpay API, served by this application on localhost
+ * so load tests run the real payment path: RazorpayGateway's pooled client,
+ * timeouts and bulkhead, then PaymentService's SDK signature check. Orders
+ * follow the Razorpay orders contract (Basic auth with the key pair, amount
+ * in paise, error bodies in Razorpay's shape). Response time is lognormal
+ * around latency-ms; error-rate and timeout-rate inject 5xx answers and
+ * calls that hang past the client's timeout. simulatePayment() plays the
+ * checkout widget: it returns the ids and signature the widget would hand
+ * the browser, and can deliver a payment.captured webhook several times over
+ * to exercise duplicate handling.
+ *
+ * Off unless helpbridge.payments.simulator.enabled=true. To use it, point
+ * razorpay.api-url at /simulator/razorpay/v1 and set non-placeholder keys.
+ */
+@Service
+@ConditionalOnProperty(name = "helpbridge.payments.simulator.enabled", havingValue = "true")
+public class PaymentSimulatorService {
+
+    @Value("${razorpay.key.id}")
+    private String keyId;
+
+    @Value("${razorpay.key.secret}")
+    private String keySecret;
+
+    @Value("${helpbridge.payments.simulator.latency-ms:200}")
+    private double latencyMs;
+
+    // Spread of the lognormal; 0 gives a fixed latency
+    @Value("${helpbridge.payments.simulator.latency-sigma:0.5}")
+    private double latencySigma;
+
+    @Value("${helpbridge.payments.simulator.max-latency-ms:30000}")
+    private long maxLatencyMs;
+
+    @Value("${helpbridge.payments.simulator.error-rate:0}")
+    private double errorRate;
+
+    // Share of calls held for hang-ms, longer than any sane client timeout
+    @Value("${helpbridge.payments.simulator.timeout-rate:0}")
+    private double timeoutRate;
+
+    @Value("${helpbridge.payments.simulator.hang-ms:60000}")
+    private long hangMs;
+
+    @Value("${helpbridge.payments.simulator.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${razorpay.webhook-secret:}")
+    private String webhookSecret;
+
+    // Extra deliveries of each webhook, as Razorpay does when it doesn't see a 2xx in time
+    @Value("${helpbridge.payments.simulator.webhook-replays:0}")
+    private int webhookReplays;
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "gateway-sim");
+        t.setDaemon(true);
+        return t;
+    });
+    private final HttpClient webhookClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(3)).build();
+    private final TtlCache<String, JSONObject> orders = new TtlCache<>(6 * 60 * 60 * 1000L, 100000);
+
+    private final AtomicLong ordersCreated = new AtomicLong();
+    private final AtomicLong errorsInjected = new AtomicLong();
+    private final AtomicLong hangsInjected = new AtomicLong();
+    private final AtomicLong payments = new AtomicLong();
+    private final AtomicLong webhooksSent = new AtomicLong();
+    private final AtomicLong webhooksFailed = new AtomicLong();
+
+    /** POST /orders. Completes after the sampled latency; the request thread is not held. */
+    public CompletableFuture<ResponseEntity<String>> createOrder(String authorization, String body) {
+        if (!authorized(authorization)) {
+            return CompletableFuture.completedFuture(
+                    error(HttpStatus.UNAUTHORIZED, "BAD_REQUEST_ERROR", "Authentication failed"));
+        }
+        JSONObject request;
+        try {
+            request = new JSONObject(body);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                    error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "The request body is not valid JSON"));
+        }
+        long amount = request.optLong("amount", 0);
+        if (amount < 100) {
+            return CompletableFuture.completedFuture(
+                    error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "Order amount less than minimum amount allowed"));
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        long delay;
+        ResponseEntity<String> response;
+        if (roll < timeoutRate) {
+            hangsInjected.incrementAndGet();
+            delay = hangMs;
+            response = error(HttpStatus.GATEWAY_TIMEOUT, "GATEWAY_ERROR", "Simulated timeout");
+        } else if (roll < timeoutRate + errorRate) {
+            errorsInjected.incrementAndGet();
+            delay = sampleLatency();
+            response = error(HttpStatus.INTERNAL_SERVER_ERROR, "SERVER_ERROR", "Simulated gateway failure");
+        } else {
+            delay = sampleLatency();
+            JSONObject order = new JSONObject();
+            order.put("id", "order_sim_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14));
+            order.put("entity", "order");
+            order.put("amount", amount);
+            order.put("amount_paid", 0);
+            order.put("amount_due", amount);
+            order.put("currency", request.optString("currency", "INR"));
+            order.put("receipt", request.optString("receipt", null));
+            order.put("status", "created");
+            order.put("attempts", 0);
+            order.put("notes", request.optJSONObject("notes") != null ? request.getJSONObject("notes") : new JSONObject());
+            order.put("created_at", System.currentTimeMillis() / 1000);
+            order.put("simulated", true); // Lets the frontend skip the real checkout widget
+            orders.put(order.getString("id"), order);
+            ordersCreated.incrementAndGet();
+            response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(order.toString());
+        }
+
+        CompletableFuture<ResponseEntity<String>> result = new CompletableFuture<>();
+        timer.schedule(() -> result.complete(response), delay, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    /**
+     * The checkout step: returns what the widget hands the browser after a
+     * successful payment, signed like Razorpay signs it, and sends the
+     * payment.captured webhook (plus replays) when a webhook URL is set.
+     */
+    public Map<String, Object> simulatePayment(String orderId) {
+        JSONObject order = orders.get(orderId);
+        if (order == null) {
+            throw new RuntimeException("Order not found");
+        }
+        String paymentId = "pay_sim_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("razorpay_order_id", orderId);
+        result.put("razorpay_payment_id", paymentId);
+        result.put("razorpay_signature", hmac(orderId + "|" + paymentId, keySecret));
+        payments.incrementAndGet();
+
+        if (webhookUrl != null && !webhookUrl.isBlank() && webhookSecret != null && !webhookSecret.isBlank()) {
+            sendWebhook(order, paymentId);
+        }
+        return result;
+    }
+
+    private void sendWebhook(JSONObject order, String paymentId) {
+        JSONObject payment = new JSONObject();
+        payment.put("id", paymentId);
+        payment.put("entity", "payment");
+        payment.put("amount", order.getLong("amount"));
+        payment.put("currency", order.getString("currency"));
+        payment.put("status", "captured");
+        payment.put("order_id", order.getString("id"));
+        payment.put("method", "upi");
+        payment.put("captured", true);
+        payment.put("notes", order.getJSONObject("notes"));
+        payment.put("created_at", System.currentTimeMillis() / 1000);
+
+        JSONObject event = new JSONObject();
+        event.put("entity", "event");
+        event.put("account_id", "acc_simulator");
+        event.put("event", "payment.captured");
+        event.put("contains", new org.json.JSONArray().put("payment"));
+        event.put("payload", new JSONObject().put("payment", new JSONObject().put("entity", payment)));
+        event.put("created_at", System.currentTimeMillis() / 1000);
+
+        String body = event.toString();
+        String eventId = "evt_sim_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("X-Razorpay-Signature", hmac(body, webhookSecret))
+                .header("X-Razorpay-Event-Id", eventId)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        // First delivery shortly after the payment, replays spread out behind it
+        for (int i = 0; i <= webhookReplays; i++) {
+            timer.schedule(() -> webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, error) -> {
+                        if (error == null && res.statusCode() / 100 == 2) {
+                            webhooksSent.incrementAndGet();
+                        } else {
+                            webhooksFailed.incrementAndGet();
+                        }
+                    }), 50L + i * 200L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long sampleLatency() {
+        double sample = latencySigma <= 0 ? latencyMs
+                : latencyMs * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+        return Math.min(maxLatencyMs, Math.max(0, Math.round(sample)));
+    }
+
+    private boolean authorized(String authorization) {
+        String expected = "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        return expected.equals(authorization);
+    }
+
+    private String hmac(String payload, String secret) {
+        try {
+            return Utils.getHash(payload, secret);
+        } catch (RazorpayException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ResponseEntity<String> error(HttpStatus status, String code, String description) {
+        JSONObject error = new JSONObject();
+        error.put("code", code);
+        error.put("description", description);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(new JSONObject().put("error", error).toString());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ordersCreated", ordersCreated.get());
+        stats.put("errorsInjected", errorsInjected.get());
+        stats.put("hangsInjected", hangsInjected.get());
+        stats.put("payments", payments.get());
+        stats.put("webhooksSent", webhooksSent.get());
+        stats.put("webhooksFailed", webhooksFailed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,353 @@
+package com.helpbridge.service;
+
+import com.helpbridge.model.WebhookSpill;
+import com.helpbridge.repository.UserRepository;
+import com.helpbridge.repository.WebhookSpillRepository;
+import com.helpbridge.util.TtlCache;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Razorpay payment.captured webhooks. The request thread only checks the
+ * HMAC signature and parses the event; the event then waits in a bounded
+ * in-memory buffer and is applied together with others in one transaction,
+ * with one total update per campaign per batch rather than per donation.
+ * When the buffer is full the event goes to the webhook_spill table instead;
+ * if that insert fails too the delivery is answered with a 503 so Razorpay
+ * sends it again. Spilled events, and any that fail to apply, are retried
+ * from there with backoff; an event that can be neither applied nor spilled
+ * (database down) stays in memory and is tried again on the next run.
+ * Buffered events are already acknowledged, so they are lost if the process
+ * crashes before they reach the database; a clean shutdown drains them, and
+ * the payment reconciliation against Razorpay is the backstop. Donations use the
+ * same insert-if-absent as /verify, so whichever arrives first records the
+ * order and the other is a no-op; any other insert failure takes the retry
+ * path rather than passing for a duplicate.
+ */
+@Service
+public class PaymentWebhookService {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private WebhookSpillRepository spillRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${razorpay.webhook-secret:}")
+    private String webhookSecret;
+
+    @Value("${helpbridge.webhooks.buffer-capacity:4096}")
+    private int bufferCapacity;
+
+    @Value("${helpbridge.webhooks.batch-size:200}")
+    private int batchSize;
+
+    @Value("${helpbridge.webhooks.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${helpbridge.webhooks.base-backoff-seconds:10}")
+    private long baseBackoffSeconds;
+
+    private BlockingQueue<CapturedPayment> buffer;
+    // Events that failed to apply and could not be spilled; at most one batch beyond the buffer
+    private final Queue<CapturedPayment> unsaved = new ConcurrentLinkedQueue<>();
+
+    // Razorpay redelivers an event with the same id until it sees a 2xx
+    private final TtlCache<String, Boolean> seenEvents = new TtlCache<>(30 * 60 * 1000L, 50000);
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    /**
+     * Accepts one webhook delivery. Returns false if the signature does not
+     * match; otherwise the event is buffered or spilled, or skipped when it is
+     * not a payment capture or its order is already recorded. Throws a 503
+     * when it can be neither buffered nor spilled, so it is not acknowledged.
+     */
+    public boolean receive(String payload, String signature, String eventId) {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Webhooks are not configured");
+        }
+        if (signature == null || !signatureMatches(payload, signature)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        received.incrementAndGet();
+        if (eventId != null && seenEvents.get(eventId) != null) {
+            replays.incrementAndGet();
+            return true;
+        }
+
+        CapturedPayment payment = CapturedPayment.parse(payload, eventId);
+        if (payment == null) {
+            ignored.incrementAndGet();
+        } else if (paymentService.isRecentlyRecorded(payment.orderId)) {
+            replays.incrementAndGet();
+        } else if (!buffer.offer(payment)) {
+            try {
+                spill(payment, null);
+            } catch (Exception e) {
+                refused.incrementAndGet();
+                System.err.println("Webhook for order " + payment.orderId + " refused, buffer full and spill failed: "
+                        + e.getMessage());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Webhook could not be stored");
+            }
+        }
+        if (eventId != null) {
+            seenEvents.put(eventId, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    private boolean signatureMatches(String payload, String signature) {
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, webhookSecret);
+        } catch (RazorpayException e) {
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.webhooks.apply-interval-ms:200}")
+    public void applyBuffered() {
+        // Anything held back from the last run goes first, as far as there is room
+        CapturedPayment held;
+        while ((held = unsaved.peek()) != null && buffer.offer(held)) {
+            unsaved.poll();
+        }
+        // Bounded by what is queued now, so events put back below wait for the next run
+        int remaining = buffer.size();
+        List<CapturedPayment> batch = new ArrayList<>(batchSize);
+        while (remaining > 0 && buffer.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+            remaining -= batch.size();
+            try {
+                applied.addAndGet(transactionTemplate.execute(status -> apply(batch)));
+                batches.incrementAndGet();
+            } catch (Exception e) {
+                System.err.println("Webhook batch of " + batch.size() + " failed, applying one by one: "
+                        + e.getMessage());
+                batch.forEach(this::applyOne);
+            }
+            batch.clear();
+        }
+    }
+
+    private void applyOne(CapturedPayment payment) {
+        try {
+            applied.addAndGet(transactionTemplate.execute(status -> apply(List.of(payment))));
+        } catch (Exception e) {
+            try {
+                spill(payment, e.getMessage());
+            } catch (Exception spillError) {
+                // Database unreachable: keep it in memory for the next run
+                if (!buffer.offer(payment)) {
+                    unsaved.add(payment);
+                }
+            }
+        }
+    }
+
+    // Returns how many donations were new. Runs inside the caller's transaction.
+    private int apply(List<CapturedPayment> payments) {
+        Map<Long, Long> totals = new HashMap<>();
+        Map<Long, Boolean> donorExists = new HashMap<>();
+        int inserted = 0;
+        for (CapturedPayment p : payments) {
+            // A donor deleted since the order was placed: keep the payment, recorded as anonymous like /verify does
+            Long donorId = p.donorId != null && donorExists.computeIfAbsent(p.donorId, userRepository::existsById)
+                    ? p.donorId : null;
+            if (paymentService.insertDonation(p.campaignId, donorId, p.paise, p.orderId, p.paymentId)) {
+                totals.merge(p.campaignId, p.paise, Long::sum);
+                inserted++;
+            }
+        }
+        totals.forEach(campaignTotalsService::add);
+        return inserted;
+    }
+
+    private void spill(CapturedPayment payment, String error) {
+        WebhookSpill row = new WebhookSpill(payment.eventId, payment.payload);
+        if (error != null) {
+            row.setAttempts(1);
+            row.setLastError(truncate(error));
+            row.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds(1)));
+        }
+        spillRepository.save(row);
+        spilled.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.webhooks.spill-poll-interval-ms:5000}")
+    public void applySpilled() {
+        int claimed;
+        do {
+            List<Long> ids = new ArrayList<>();
+            try {
+                claimed = transactionTemplate.execute(status -> {
+                    List<WebhookSpill> rows = spillRepository.claimDue(LocalDateTime.now(), maxAttempts, batchSize);
+                    List<CapturedPayment> payments = new ArrayList<>(rows.size());
+                    for (WebhookSpill row : rows) {
+                        ids.add(row.getId());
+                        CapturedPayment payment = CapturedPayment.parse(row.getPayload(), row.getEventId());
+                        if (payment != null) {
+                            payments.add(payment);
+                        }
+                    }
+                    applied.addAndGet(apply(payments));
+                    spillRepository.deleteAllInBatch(rows);
+                    return rows.size();
+                });
+                if (claimed > 0) {
+                    batches.incrementAndGet();
+                }
+            } catch (Exception e) {
+                // Each row gets its own attempt; failures are pushed back by the backoff
+                ids.forEach(this::retrySpilled);
+                claimed = ids.size();
+            }
+        } while (claimed == batchSize);
+    }
+
+    private void retrySpilled(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> spillRepository.findById(id).ifPresent(row -> {
+                CapturedPayment payment = CapturedPayment.parse(row.getPayload(), row.getEventId());
+                if (payment != null) {
+                    applied.addAndGet(apply(List.of(payment)));
+                }
+                spillRepository.delete(row);
+            }));
+        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(status -> spillRepository.findById(id).ifPresent(row -> {
+                int attempts = row.getAttempts() + 1;
+                row.setAttempts(attempts);
+                row.setLastError(truncate(e.getMessage()));
+                row.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+                if (attempts >= maxAttempts) {
+                    System.err.println("Webhook " + row.getEventId() + " gave up after " + attempts
+                            + " attempts: " + row.getLastError());
+                }
+                spillRepository.save(row);
+            }));
+        }
+    }
+
+    // 10s, 20s, 40s ... capped at an hour
+    private long backoffSeconds(int attempts) {
+        long backoff = baseBackoffSeconds << Math.min(attempts - 1, 20);
+        return Math.min(backoff, TimeUnit.HOURS.toSeconds(1));
+    }
+
+    private String truncate(String error) {
+        String message = String.valueOf(error);
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    // Whatever is still buffered is applied, or spilled, before the database goes away
+    @PreDestroy
+    public void drain() {
+        applyBuffered();
+        int left = buffer.size() + unsaved.size();
+        if (left > 0) {
+            System.err.println(left + " acknowledged webhooks could not be stored before shutdown");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("configured", webhookSecret != null && !webhookSecret.isBlank());
+        stats.put("received", received.get());
+        stats.put("rejectedSignatures", rejected.get());
+        stats.put("ignored", ignored.get());
+        stats.put("replaysSkipped", replays.get());
+        stats.put("buffered", buffer.size());
+        stats.put("bufferCapacity", bufferCapacity);
+        stats.put("heldInMemory", unsaved.size());
+        stats.put("refused", refused.get());
+        stats.put("spilled", spilled.get());
+        stats.put("spillPending", spillRepository.countByAttemptsLessThan(maxAttempts));
+        stats.put("spillDead", spillRepository.countByAttemptsGreaterThanEqual(maxAttempts));
+        stats.put("applied", applied.get());
+        stats.put("batches", batches.get());
+        return stats;
+    }
+
+    private static class CapturedPayment {
+        private String eventId;
+        private String payload;
+        private String orderId;
+        private String paymentId;
+        private Long campaignId;
+        private Long donorId;
+        private long paise;
+
+        // Null for anything other than a payment.captured event for one of our orders
+        static CapturedPayment parse(String payload, String eventId) {
+            try {
+                JSONObject event = new JSONObject(payload);
+                if (!"payment.captured".equals(event.optString("event"))) {
+                    return null;
+                }
+                JSONObject entity = event.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
+                JSONObject notes = entity.optJSONObject("notes");
+                if (notes == null || !notes.has("campaign_id") || entity.optString("order_id", null) == null) {
+                    System.err.println("Webhook for payment " + entity.optString("id") + " has no campaign, skipped");
+                    return null;
+                }
+                CapturedPayment p = new CapturedPayment();
+                p.eventId = eventId;
+                p.payload = payload;
+                p.orderId = entity.getString("order_id");
+                p.paymentId = entity.optString("id", null);
+                p.campaignId = notes.getLong("campaign_id");
+                p.donorId = notes.has("donor_id") ? notes.getLong("donor_id") : null;
+                p.paise = entity.getLong("amount");
+                return p;
+            } catch (Exception e) {
+                System.err.println("Unreadable webhook " + eventId + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.helpbridge.service;
+
+import jakarta.annotation.PostConstruct;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one connection to the Razorpay REST API. razorpay-java 1.4.3 rebuilds
+ * its static OkHttp client in every RazorpayClient constructor and has no
+ * timeout settings, so orders are created here over a single shared
+ * HttpClient instead: connections are kept alive and reused across
+ * checkouts, and both timeouts come from configuration. A semaphore caps
+ * concurrent calls so a slow gateway can only tie up that many requests;
+ * beyond it callers get a 503 straight away. Signature checks stay on the
+ * SDK's Utils, which is local HMAC and needs no client.
+ */
+@Component
+public class RazorpayGateway {
+
+    @Value("${razorpay.key.id}")
+    private String keyId;
+
+    @Value("${razorpay.key.secret}")
+    private String keySecret;
+
+    @Value("${razorpay.api-url:https://api.razorpay.com/v1}")
+    private String apiUrl;
+
+    @Value("${razorpay.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${razorpay.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${razorpay.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    private HttpClient httpClient;
+    private Semaphore bulkhead;
+    private String authorization;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        bulkhead = new Semaphore(maxConcurrentCalls);
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Placeholder keys from the sample configuration: no real gateway to talk to
+    public boolean isMock() {
+        return keyId == null || keyId.contains("YourKeyHere") || keySecret.contains("YourSecretHere");
+    }
+
+    /**
+     * Creates an order without blocking the caller. Completes with the order
+     * JSON, or exceptionally with a ResponseStatusException: 503 when the
+     * bulkhead is full, 502 when the gateway fails or times out.
+     */
+    public CompletableFuture<JSONObject> createOrderAsync(JSONObject orderRequest) {
+        if (!bulkhead.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway is busy, try again"));
+        }
+        calls.incrementAndGet();
+        long start = System.currentTimeMillis();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + "/orders"))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(orderRequest.toString()))
+                .build();
+
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            failures.incrementAndGet();
+            return CompletableFuture.failedFuture(gatewayError(e));
+        }
+        return response.handle((res, error) -> {
+            bulkhead.release();
+            totalLatencyMs.addAndGet(System.currentTimeMillis() - start);
+            if (error != null) {
+                failures.incrementAndGet();
+                throw gatewayError(error);
+            }
+            if (res.statusCode() / 100 != 2) {
+                failures.incrementAndGet();
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                        "Razorpay returned " + res.statusCode() + ": " + res.body());
+            }
+            return new JSONObject(res.body());
+        });
+    }
+
+    public JSONObject createOrder(JSONObject orderRequest) {
+        try {
+            return createOrderAsync(orderRequest).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private ResponseStatusException gatewayError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Payment gateway unreachable: " + cause, cause);
+    }
+
+    public Map<String, Object> getStats() {
+        long n = calls.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mock", isMock());
+        stats.put("calls", n);
+        stats.put("failures", failures.get());
+        stats.put("rejectedByBulkhead", rejected.get());
+        stats.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+        stats.put("avgLatencyMs", n == 0 ? 0 : totalLatencyMs.get() / (double) n);
+        return stats;
+    }
+}
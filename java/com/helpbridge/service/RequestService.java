@@ -1,13 +1,47 @@
 package com.helpbridge.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.ServiceRequestSummary;
 import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
 import com.helpbridge.model.ServiceRequest;
 import com.helpbridge.model.Volunteer;
 import com.helpbridge.repository.ServiceRequestRepository;
 import com.helpbridge.repository.VolunteerRepository;
+import com.helpbridge.util.GeoGridIndex;
+import com.helpbridge.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class RequestService {
@@ -24,22 +58,31 @@ public class RequestService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GeoMatchingService geoMatchingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${helpbridge.requests.max-update-attempts:5}")
+    private int maxUpdateAttempts;
+
+    private final AtomicLong conflicts = new AtomicLong();
+
+    @Transactional
     public ServiceRequest createRequest(ServiceRequest request) {
         ServiceRequest saved = requestRepository.save(request);
-        notifyVolunteers(saved);
+        // Volunteers are notified by VolunteerFanOutService after commit
+        eventPublisher.publishEvent(new ServiceRequestCreatedEvent(saved));
         return saved;
     }
 
-    private void notifyVolunteers(ServiceRequest request) {
-        if (request.getCity() == null)
-            return;
-        List<Volunteer> volunteers = volunteerRepository.findByCity(request.getCity());
-        for (Volunteer v : volunteers) {
-            emailService.sendEmail(v.getEmail(), "New Request Nearby",
-                    "A new request has been posted in your city: " + request.getDescription());
-        }
-    }
-
     public List<ServiceRequest> getRequestsByStudent(Long studentId) {
         return requestRepository.findByStudentId(studentId);
     }
@@ -52,43 +95,59 @@ public class RequestService {
         return requestRepository.findByCityAndStatus(city, RequestStatus.PENDING);
     }
 
+    /**
+     * Pending requests near a point, nearest first. The point is lat/lon when
+     * given, otherwise the volunteer's registered position. Falls back to the
+     * exact city match when neither is known.
+     */
+    public List<ServiceRequest> getNearbyRequests(String city, Double lat, Double lon, Long volunteerId,
+            double radiusKm) {
+        double[] origin = null;
+        if (lat != null && lon != null) {
+            origin = new double[] { lat, lon };
+        } else if (volunteerId != null) {
+            origin = geoMatchingService.volunteerLocation(volunteerId);
+        }
+        if (origin == null) {
+            return city == null ? new ArrayList<>() : getNearbyRequests(city);
+        }
+
+        List<GeoGridIndex.Hit> hits = geoMatchingService.openRequestsWithin(origin[0], origin[1], radiusKm);
+        if (hits.isEmpty())
+            return new ArrayList<>();
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            rank.put(hits.get(i).getId(), i);
+        }
+        // The index only nominates candidates, status comes from the database
+        List<ServiceRequest> requests = requestRepository.findByIdInAndStatus(rank.keySet(), RequestStatus.PENDING);
+        requests.sort(Comparator.comparingInt(r -> rank.get(r.getId())));
+        return requests;
+    }
+
     // This method is used by NGO to Assign a Volunteer (Step 1)
     public void acceptRequest(Long requestId, Long volunteerId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
         Volunteer volunteer = volunteerRepository.findById(volunteerId)
                 .orElseThrow(() -> new RuntimeException("Volunteer not found"));
 
-        if (req.getStatus() != RequestStatus.PENDING && req.getStatus() != RequestStatus.ACCEPTED) {
-            // relax check
-        }
+        // Notify Volunteer about assignment, recorded in the same transaction as the change
+        transition(requestId, null, RequestStatus.ASSIGNED, r -> r.setVolunteer(volunteer),
+                req -> notifyAssigned(volunteer, req));
+    }
 
-        req.setVolunteer(volunteer);
-        req.setStatus(RequestStatus.ASSIGNED);
-        requestRepository.save(req);
-
-        // Notify Volunteer about assignment
-        try {
-            emailService.sendEmail(volunteer.getEmail(), "New Request Assigned",
-                    "You have been assigned a new request: " + req.getDescription()
-                            + ". Please log in to your dashboard to accept it.");
-        } catch (Exception e) {
-            System.out.println("Error sending assignment email: " + e.getMessage());
-        }
+    private void notifyAssigned(Volunteer volunteer, ServiceRequest req) {
+        emailService.sendEmail(volunteer.getEmail(), "New Request Assigned",
+                "You have been assigned a new request: " + req.getDescription()
+                        + ". Please log in to your dashboard to accept it.");
     }
 
     public void completeRequest(Long requestId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        req.setStatus(RequestStatus.COMPLETED);
-        requestRepository.save(req);
+        transition(requestId, null, RequestStatus.COMPLETED, r -> {
+        });
     }
 
     public void submitFeedback(Long requestId, String feedback) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        req.setFeedback(feedback);
-        requestRepository.save(req);
+        update(requestId, r -> r.setFeedback(feedback));
     }
 
     public List<ServiceRequest> getAllRequests() {
@@ -96,142 +155,259 @@ public class RequestService {
     }
 
     public List<ServiceRequest> getRequestsForNgoView(Long ngoId) {
-        // Return PENDING requests (visible to all) OR requests owned by this NGO
-        List<ServiceRequest> all = requestRepository.findAll();
-        // Filtering in memory for simplicity (can be optimized with JPQL)
-        return all.stream()
-                .filter(req -> req.getStatus() == RequestStatus.PENDING ||
-                        (req.getNgo() != null && req.getNgo().getId().equals(ngoId)))
-                .toList();
+        // PENDING requests (visible to all) merged with requests owned by this NGO,
+        // each side served by its own index instead of scanning the whole table
+        return mergeNewestFirst(requestRepository.findByStatusOrderByCreatedAtDesc(RequestStatus.PENDING),
+                requestRepository.findByNgoIdOrderByCreatedAtDesc(ngoId), Integer.MAX_VALUE);
     }
 
-    public void acceptRequestByNgo(Long requestId, Long ngoId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        if (req.getStatus() != RequestStatus.PENDING) {
-            throw new RuntimeException("Request is not pending");
+    public CursorPage<ServiceRequest> getRequestsForNgoView(Long ngoId, String cursor, int size) {
+        LocalDateTime createdAt = LocalDateTime.of(9999, 12, 31, 23, 59);
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("\\|");
+                createdAt = LocalDateTime.parse(parts[0]);
+                id = Long.parseLong(parts[1]);
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
         }
 
+        // Fetch one extra row on each side to know whether another page exists
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ServiceRequest> merged = mergeNewestFirst(
+                requestRepository.findPageByStatus(RequestStatus.PENDING, createdAt, id, limit),
+                requestRepository.findPageByNgo(ngoId, createdAt, id, limit), size + 1);
+
+        if (merged.size() <= size) {
+            return new CursorPage<>(merged, null);
+        }
+        List<ServiceRequest> items = merged.subList(0, size);
+        ServiceRequest last = items.get(size - 1);
+        String next = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        return new CursorPage<>(new ArrayList<>(items), next);
+    }
+
+    // Merges two lists already sorted by (createdAt, id) descending, dropping
+    // the PENDING requests that show up on both sides.
+    private List<ServiceRequest> mergeNewestFirst(List<ServiceRequest> a, List<ServiceRequest> b, int max) {
+        Comparator<ServiceRequest> newestFirst = Comparator
+                .comparing(ServiceRequest::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(ServiceRequest::getId, Comparator.reverseOrder());
+        List<ServiceRequest> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        int i = 0, j = 0;
+        while (result.size() < max && (i < a.size() || j < b.size())) {
+            ServiceRequest next;
+            if (j >= b.size() || (i < a.size() && newestFirst.compare(a.get(i), b.get(j)) <= 0)) {
+                next = a.get(i++);
+            } else {
+                next = b.get(j++);
+            }
+            if (seen.add(next.getId())) {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+
+    public CursorPage<ServiceRequestSummary> getRequestSummaries(Long beforeId, int size) {
+        List<ServiceRequestSummary> items = requestRepository.findSummaries(
+                beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.of(0, size));
+        String next = items.size() < size ? null : String.valueOf(items.get(items.size() - 1).getId());
+        return new CursorPage<>(items, next);
+    }
+
+    // Writes every request as one JSON object per line while the cursor is read
+    @Transactional(readOnly = true)
+    public void exportRequests(OutputStream out) throws IOException {
+        try (Stream<ServiceRequestSummary> rows = requestRepository.streamSummaries()) {
+            Iterator<ServiceRequestSummary> it = rows.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    public void acceptRequestByNgo(Long requestId, Long ngoId) {
         com.helpbridge.model.NGO ngo = ngoRepository.findById(ngoId)
                 .orElseThrow(() -> new RuntimeException("NGO not found"));
 
-        req.setNgo(ngo);
-        req.setStatus(RequestStatus.ACCEPTED);
-        requestRepository.save(req);
+        // Only from PENDING: of two NGOs accepting at once, the second gets a conflict
+        transition(requestId, EnumSet.of(RequestStatus.PENDING), RequestStatus.ACCEPTED, r -> r.setNgo(ngo));
     }
 
     public void allocateFunds(Long requestId, Double amount) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        req.setFundsAllocated(req.getFundsAllocated() + amount);
-        requestRepository.save(req);
+        if (requestRepository.addFunds(requestId, Money.toPaise(amount)) == 0) {
+            throw new RuntimeException("Request not found");
+        }
     }
 
     // Step 2: Volunteer Accepts the Assigned Request
     public void volunteerAcceptsRequest(Long requestId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-
-        // Ensure request is in ASSIGNED state (or handle re-acceptance if safe)
-        if (req.getStatus() != RequestStatus.ASSIGNED) {
-            throw new RuntimeException("Request is not in ASSIGNED state");
-        }
-
-        req.setStatus(RequestStatus.ACCEPTED);
-        requestRepository.save(req);
+        transition(requestId, EnumSet.of(RequestStatus.ASSIGNED), RequestStatus.ACCEPTED, r -> {
+        }, this::notifyRequesterOfAcceptance);
+    }
 
-        // Notify Student/Requester with Volunteer's ID Proof
+    // Notify Student/Requester with Volunteer's ID Proof
+    private void notifyRequesterOfAcceptance(ServiceRequest req) {
         Volunteer volunteer = req.getVolunteer();
         if (volunteer == null)
             return;
 
-        try {
-            String subject = "Request Accepted by Volunteer";
-            String body = "Dear Requestor,\n\n" +
-                    "Your request description: \"" + req.getDescription() + "\"\n" +
-                    "Has been accepted by Volunteer: " + volunteer.getFullName() + ".\n\n" +
-                    "Please find the Volunteer's Identity Proof attached for your verification.\n\n" +
-                    "Best Regards,\nHelpBridge NGO Team";
-
-            // Resolve absolute path for attachment
-            String relativePath = volunteer.getIdProofPath();
-            if (relativePath != null && !relativePath.isEmpty()) {
-                if (relativePath.startsWith("/") || relativePath.startsWith("\\")) {
-                    relativePath = relativePath.substring(1);
-                }
-                String projectRoot = System.getProperty("user.dir");
-                java.nio.file.Path filePath = java.nio.file.Paths.get(projectRoot, "src", "main", "resources", "static",
-                        relativePath);
-
-                String studentEmail = (req.getStudent() != null) ? req.getStudent().getEmail() : "admin@helpbridge.com";
-
-                if (filePath.toFile().exists()) {
-                    emailService.sendEmailWithAttachment(studentEmail, subject, body,
-                            filePath.toAbsolutePath().toString());
-                } else {
-                    emailService.sendEmail(studentEmail, subject,
-                            body + "\n(Note: ID Proof document file not found on server)");
-                }
+        String studentEmail = (req.getStudent() != null) ? req.getStudent().getEmail() : "admin@helpbridge.com";
+        String subject = "Request Accepted by Volunteer";
+        String body = "Dear Requestor,\n\n" +
+                "Your request description: \"" + req.getDescription() + "\"\n" +
+                "Has been accepted by Volunteer: " + volunteer.getFullName() + ".\n\n" +
+                "Please find the Volunteer's Identity Proof attached for your verification.\n\n" +
+                "Best Regards,\nHelpBridge NGO Team";
+
+        // Resolve absolute path for attachment
+        String relativePath = volunteer.getIdProofPath();
+        if (relativePath != null && !relativePath.isEmpty()) {
+            if (relativePath.startsWith("/") || relativePath.startsWith("\\")) {
+                relativePath = relativePath.substring(1);
+            }
+            String projectRoot = System.getProperty("user.dir");
+            java.nio.file.Path filePath = java.nio.file.Paths.get(projectRoot, "src", "main", "resources", "static",
+                    relativePath);
+
+            if (filePath.toFile().exists()) {
+                emailService.sendEmailWithAttachment(studentEmail, subject, body,
+                        filePath.toAbsolutePath().toString());
             } else {
-                emailService.sendEmail(req.getStudent().getEmail(), subject,
-                        body + "\n(No ID Proof document available for this volunteer)");
+                emailService.sendEmail(studentEmail, subject,
+                        body + "\n(Note: ID Proof document file not found on server)");
             }
-        } catch (Exception e) {
-            System.out.println("Error sending acceptance email: " + e.getMessage());
+        } else {
+            emailService.sendEmail(studentEmail, subject,
+                    body + "\n(No ID Proof document available for this volunteer)");
         }
     }
 
     // Dedicated method for Assignment to avoid confusion/conflicts
     public void assignVolunteer(Long requestId, Long volunteerId, Long ngoId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
         Volunteer volunteer = volunteerRepository.findById(volunteerId)
                 .orElseThrow(() -> new RuntimeException("Volunteer not found"));
 
         com.helpbridge.model.NGO ngo = ngoRepository.findById(ngoId)
                 .orElseThrow(() -> new RuntimeException("NGO not found"));
 
-        // Allow assignment if Pending or Accepted (by NGO)
-        // We set it to ASSIGNED
-        req.setVolunteer(volunteer);
-        req.setNgo(ngo); // Link to this NGO
-        req.setStatus(RequestStatus.ASSIGNED);
-        requestRepository.save(req);
-
-        try {
-            emailService.sendEmail(volunteer.getEmail(), "New Request Assigned",
-                    "You have been assigned a new request: " + req.getDescription()
-                            + ". Please log in to your dashboard to accept it.");
-        } catch (Exception e) {
-            System.out.println("Error sending assignment email: " + e.getMessage());
-        }
+        // Pending, accepted by an NGO, or reassigned; the transition table decides
+        transition(requestId, null, RequestStatus.ASSIGNED, r -> {
+            r.setVolunteer(volunteer);
+            r.setNgo(ngo); // Link to this NGO
+        }, req -> notifyAssigned(volunteer, req));
     }
 
     // Method for Volunteer to Reject Assignment
     public void rejectAssignment(Long requestId) {
-        ServiceRequest req = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-
-        if (req.getStatus() != RequestStatus.ASSIGNED) {
-            throw new RuntimeException("Can only reject ASSIGNED requests");
-        }
-
-        Volunteer v = req.getVolunteer();
-        String volName = (v != null) ? v.getFullName() : "Unknown";
+        String[] volName = { "Unknown" };
 
         // Reset to Pending
-        req.setVolunteer(null);
-        req.setStatus(RequestStatus.PENDING);
-        requestRepository.save(req);
+        transition(requestId, EnumSet.of(RequestStatus.ASSIGNED), RequestStatus.PENDING, r -> {
+            Volunteer v = r.getVolunteer();
+            if (v != null) {
+                volName[0] = v.getFullName();
+                volunteerRepository.incrementRejectedAssignments(v.getId());
+            }
+            r.setVolunteer(null);
+        });
 
         // Notify Admin/NGO (Optional, logging for now)
-        System.out.println("Volunteer " + volName + " rejected request " + requestId);
+        System.out.println("Volunteer " + volName[0] + " rejected request " + requestId);
     }
 
     public void deleteRequest(Long requestId) {
-        if (!requestRepository.existsById(requestId)) {
-            throw new RuntimeException("Request not found");
+        ServiceRequest req = requestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
+        requestRepository.delete(req);
+        eventPublisher.publishEvent(new ServiceRequestDeletedEvent(requestId, req.getStatus(),
+                req.getVolunteer() != null ? req.getVolunteer().getId() : null));
+    }
+
+    /**
+     * Moves a request to {@code to} if the transition table allows it from its
+     * current status (and, when given, only from one of {@code from}). Anything
+     * else is a 409. The change itself runs through {@link #update}, so a
+     * concurrent writer causes a re-read and a fresh check rather than a lost
+     * update. {@code afterSave}, if given, runs in the same transaction once
+     * the row is written (mail goes to the outbox there), so it is recorded
+     * exactly when the change commits.
+     */
+    private ServiceRequest transition(Long requestId, Set<RequestStatus> from, RequestStatus to,
+            Consumer<ServiceRequest> change) {
+        return transition(requestId, from, to, change, null);
+    }
+
+    private ServiceRequest transition(Long requestId, Set<RequestStatus> from, RequestStatus to,
+            Consumer<ServiceRequest> change, Consumer<ServiceRequest> afterSave) {
+        return update(requestId, req -> {
+            RequestStatus previous = req.getStatus();
+            if (!previous.canMoveTo(to) || (from != null && !from.contains(previous))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Request " + requestId + " is " + previous + " and cannot move to " + to);
+            }
+            Volunteer before = req.getVolunteer();
+            change.accept(req);
+            req.setStatus(to);
+            Volunteer after = req.getVolunteer();
+            Volunteer involved = after != null ? after : before;
+            publishStatusChange(req, previous, involved != null ? involved.getId() : null,
+                    before != null ? before.getId() : null);
+        }, afterSave);
+    }
+
+    /**
+     * Read-modify-write under the @Version check. Each attempt reads the row in
+     * its own transaction and flushes before commit; if another writer bumped
+     * the version in between, the attempt rolls back (events included) and is
+     * retried against the fresh row. No row locks are held between read and
+     * write.
+     */
+    private ServiceRequest update(Long requestId, Consumer<ServiceRequest> change) {
+        return update(requestId, change, null);
+    }
+
+    private ServiceRequest update(Long requestId, Consumer<ServiceRequest> change, Consumer<ServiceRequest> afterSave) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    ServiceRequest req = requestRepository.findById(requestId)
+                            .orElseThrow(() -> new RuntimeException("Request not found"));
+                    change.accept(req);
+                    ServiceRequest saved = requestRepository.saveAndFlush(req);
+                    if (afterSave != null) {
+                        afterSave.accept(saved);
+                    }
+                    return saved;
+                });
+            } catch (ObjectOptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxUpdateAttempts) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Request " + requestId + " is being changed concurrently, try again");
+                }
+            }
         }
-        requestRepository.deleteById(requestId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("versionConflicts", conflicts.get());
+        return stats;
+    }
+
+    private void publishStatusChange(ServiceRequest req, RequestStatus previous, Long volunteerId,
+            Long previousVolunteerId) {
+        Long ngoId = req.getNgo() != null ? req.getNgo().getId() : null;
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(req.getId(), previous, req.getStatus(),
+                volunteerId, previousVolunteerId, ngoId));
     }
 }
@@ -0,0 +1,213 @@
+package com.helpbridge.service;
+
+import com.helpbridge.dto.CampaignSummary;
+import com.helpbridge.dto.CursorPage;
+import com.helpbridge.dto.SearchHit;
+import com.helpbridge.event.RequestCountsAdjustedEvent;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
+import com.helpbridge.model.HelpPost;
+import com.helpbridge.model.ServiceRequest;
+import com.helpbridge.repository.HelpPostRepository;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.util.TextIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Full-text search over help posts and service requests, from an in-process
+ * TextIndex. Built on startup, then kept current by HelpPostService and the
+ * request events. Bulk request statements (user deletion) only say how many
+ * rows changed, so they mark the index stale and it is rebuilt on the side
+ * and swapped in; changes made meanwhile are replayed onto the new index.
+ */
+@Service
+public class SearchService {
+
+    public static final String POST = "post";
+    public static final String REQUEST = "request";
+
+    @Autowired
+    private HelpPostRepository helpPostRepository;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Value("${helpbridge.search.load-page-size:2000}")
+    private int loadPageSize;
+
+    private volatile TextIndex index = new TextIndex();
+    private List<Consumer<TextIndex>> replay; // non-null while a rebuild is running, guarded by this
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong totalQueryMicros = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile LocalDateTime lastRebuild;
+
+    /**
+     * Ranked matches for q, optionally only posts or requests and only in a
+     * city or status. The cursor is the offset of the next page.
+     */
+    public CursorPage<SearchHit> search(String q, String type, String city, String status, boolean fuzzy,
+            Integer cursor, int size) {
+        long start = System.nanoTime();
+        Predicate<TextIndex.Doc> filter = doc -> (type == null || type.equalsIgnoreCase(doc.getType()))
+                && (city == null || city.equalsIgnoreCase(doc.getCity()))
+                && (status == null || status.equalsIgnoreCase(doc.getStatus()));
+        int offset = cursor == null ? 0 : Math.max(0, cursor);
+        TextIndex.Result result = index.search(q, filter, fuzzy, offset, size);
+
+        List<SearchHit> hits = new ArrayList<>(result.getHits().size());
+        for (TextIndex.Hit hit : result.getHits()) {
+            TextIndex.Doc doc = hit.getDoc();
+            // Requests have no title of their own
+            String title = doc.getTitle() != null && !doc.getTitle().isBlank() ? doc.getTitle()
+                    : abbreviate(doc.getBody(), 80);
+            hits.add(new SearchHit(doc.getType(), doc.getId(), title, abbreviate(doc.getBody(), 160),
+                    doc.getCity(), doc.getStatus(), hit.getScore()));
+        }
+        queries.incrementAndGet();
+        totalQueryMicros.addAndGet((System.nanoTime() - start) / 1000);
+        int next = offset + hits.size();
+        return new CursorPage<>(hits, next < result.getTotal() ? String.valueOf(next) : null);
+    }
+
+    public void indexPost(HelpPost post) {
+        Long id = post.getId();
+        String title = post.getTitle();
+        String description = post.getDescription();
+        String category = post.getCategory();
+        String city = post.getCity();
+        String status = post.getStatus();
+        apply(index -> index.put(POST + ":" + id, POST, id, title, description, category, city, status));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ServiceRequestCreatedEvent event) {
+        ServiceRequest request = event.getRequest();
+        Long id = request.getId();
+        String description = request.getDescription();
+        String location = request.getLocation();
+        String city = request.getCity();
+        String status = request.getStatus() == null ? null : request.getStatus().name();
+        apply(index -> index.put(REQUEST + ":" + id, REQUEST, id, null, description, location, city, status));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestDeleted(ServiceRequestDeletedEvent event) {
+        String key = REQUEST + ":" + event.getRequestId();
+        apply(index -> index.remove(key));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        String key = REQUEST + ":" + event.getRequestId();
+        String status = event.getStatus().name();
+        apply(index -> index.updateStatus(key, status));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCountsAdjusted(RequestCountsAdjustedEvent event) {
+        stale.set(true);
+    }
+
+    private synchronized void apply(Consumer<TextIndex> change) {
+        change.accept(index);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.search.stale-check-ms:30000}")
+    public void rebuildIfStale() {
+        if (stale.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            stale.set(true); // one is running; go again afterwards
+            return;
+        }
+        try {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            TextIndex fresh = new TextIndex();
+            for (CampaignSummary post : helpPostRepository.findAllSummaries()) {
+                fresh.put(POST + ":" + post.getId(), POST, post.getId(), post.getTitle(), post.getDescription(),
+                        post.getCategory(), post.getCity(), post.getStatus());
+            }
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = requestRepository.findSearchRows(afterId, PageRequest.of(0, loadPageSize));
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    fresh.put(REQUEST + ":" + id, REQUEST, id, null, (String) row[1], (String) row[2],
+                            (String) row[3], row[4] == null ? null : row[4].toString());
+                    afterId = id;
+                }
+            } while (rows.size() == loadPageSize);
+
+            synchronized (this) {
+                replay.forEach(change -> change.accept(fresh));
+                index = fresh;
+                replay = null;
+            }
+            rebuilds.incrementAndGet();
+            lastRebuild = LocalDateTime.now();
+            System.out.println("Search index built: " + fresh.size() + " documents, " + fresh.terms() + " terms");
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+            }
+            stale.set(true);
+            System.err.println("Search index rebuild failed: " + e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private static String abbreviate(String text, int max) {
+        if (text == null || text.length() <= max) {
+            return text;
+        }
+        return text.substring(0, max - 3).trim() + "...";
+    }
+
+    public Map<String, Object> getStats() {
+        long n = queries.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", index.size());
+        stats.put("terms", index.terms());
+        stats.put("queries", n);
+        stats.put("avgQueryMicros", n == 0 ? 0 : totalQueryMicros.get() / n);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("lastRebuild", lastRebuild);
+        stats.put("stale", stale.get());
+        return stats;
+    }
+}
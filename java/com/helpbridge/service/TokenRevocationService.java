@@ -0,0 +1,76 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.UserLifecycleEvent;
+import com.helpbridge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per email, the moment a user was suspended, rejected or deleted.
+ * Any token issued at or before that moment is refused, which lets the JWT
+ * filter trust role claims without reading the users table. Entries older
+ * than the token lifetime can no longer match a live token and are dropped.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMs;
+
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    // After a restart, treat every currently blocked user as revoked from now on
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBlockedUsers() {
+        long now = System.currentTimeMillis();
+        for (String email : userRepository.findEmailsByStatusIn(
+                java.util.List.of(UserStatus.Suspended.name(), UserStatus.Rejected.name()))) {
+            revokedAt.put(email, now);
+        }
+        System.out.println("Token revocation list loaded: " + revokedAt.size() + " users");
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        Long at = revokedAt.get(email);
+        if (at == null)
+            return false;
+        // iat has second precision, so a token from the same second counts as revoked
+        return issuedAt == null || issuedAt.getTime() <= at;
+    }
+
+    public void revoke(String email) {
+        revokedAt.put(email, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getType() == UserLifecycleEvent.Type.DELETED || event.getStatus() == UserStatus.Suspended
+                || event.getStatus() == UserStatus.Rejected) {
+            revoke(event.getEmail());
+        }
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - tokenLifetimeMs;
+        revokedAt.values().removeIf(at -> at < cutoff);
+    }
+
+    public int size() {
+        return revokedAt.size();
+    }
+}
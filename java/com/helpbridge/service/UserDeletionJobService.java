@@ -0,0 +1,167 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.model.User;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.repository.UserRepository;
+import com.helpbridge.util.TtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background mode for deleting users with a very large number of requests.
+ * Their requests are released or deleted in chunks, each in its own short
+ * transaction, and the user row itself goes last through
+ * AdminService.deleteUser. Progress can be polled by job id for a day.
+ */
+@Service
+public class UserDeletionJobService {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("userDeletionExecutor")
+    private AsyncTaskExecutor executor;
+
+    @Value("${helpbridge.admin.delete-chunk-size:1000}")
+    private int chunkSize;
+
+    private final TtlCache<String, DeletionJob> jobs = new TtlCache<>(24 * 60 * 60 * 1000L, 1000);
+
+    public DeletionJob start(Long userId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        DeletionJob job = new DeletionJob(UUID.randomUUID().toString(), userId, user.getRole());
+        long total = 0;
+        List<Object[]> counts = user.getRole() == RoleType.Volunteer
+                ? requestRepository.countByVolunteerGroupedByStatus(userId)
+                : user.getRole() == RoleType.Student ? requestRepository.countByStudentGroupedByStatus(userId)
+                        : List.of();
+        for (Object[] row : counts) {
+            total += ((Number) row[1]).longValue();
+        }
+        job.totalRequests = total;
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.state = "FAILED";
+            job.error = "Too many deletion jobs queued, try again later";
+            job.finishedAt = LocalDateTime.now();
+        }
+        return job;
+    }
+
+    public DeletionJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(DeletionJob job) {
+        job.state = "RUNNING";
+        try {
+            while (true) {
+                Integer done = transactionTemplate.execute(status -> {
+                    if (job.role == RoleType.Volunteer) {
+                        List<Long> ids = requestRepository.findIdsByVolunteer(job.userId, chunkSize);
+                        return ids.isEmpty() ? 0 : adminService.releaseVolunteerRequests(job.userId, ids);
+                    } else if (job.role == RoleType.Student) {
+                        List<Long> ids = requestRepository.findIdsByStudent(job.userId, chunkSize);
+                        return ids.isEmpty() ? 0 : adminService.deleteStudentRequests(job.userId, ids);
+                    }
+                    return 0;
+                });
+                if (done == null || done == 0)
+                    break;
+                job.processedRequests.addAndGet(done);
+                job.chunks.incrementAndGet();
+            }
+            // Whatever is left (notifications, stragglers, the user row) in one transaction
+            adminService.deleteUser(job.userId);
+            job.state = "DONE";
+        } catch (Exception e) {
+            job.state = "FAILED";
+            job.error = e.getMessage();
+            System.err.println("Background deletion of user " + job.userId + " failed: " + e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    public static class DeletionJob {
+        private final String id;
+        private final Long userId;
+        private final RoleType role;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String state = "QUEUED";
+        private volatile long totalRequests;
+        private final AtomicLong processedRequests = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private DeletionJob(String id, Long userId, RoleType role) {
+            this.id = id;
+            this.userId = userId;
+            this.role = role;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public RoleType getRole() {
+            return role;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getTotalRequests() {
+            return totalRequests;
+        }
+
+        public long getProcessedRequests() {
+            return processedRequests.get();
+        }
+
+        public long getChunks() {
+            return chunks.get();
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.helpbridge.service;
 
 import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.UserLifecycleEvent;
 import com.helpbridge.model.User;
 import com.helpbridge.repository.UserRepository;
+import com.helpbridge.util.JwtUtil;
+import com.helpbridge.util.TtlCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 
@@ -17,6 +23,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final TtlCache<String, UserDetails> principals;
+
+    public UserDetailsServiceImpl(@Value("${jwt.cache.ttl-ms:300000}") long ttlMs,
+            @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.principals = new TtlCache<>(ttlMs, maxSize);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -30,4 +46,31 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                         .singletonList(new org.springframework.security.core.authority.SimpleGrantedAuthority(
                                 "ROLE_" + user.getRole())));
     }
+
+    /**
+     * Principal for an already authenticated (JWT) request. Cached per email and
+     * built without the password hash, since nothing downstream checks it and
+     * the login path erases credentials on the objects it is given.
+     */
+    public UserDetails loadAuthenticatedUser(String email) {
+        UserDetails cached = principals.get(email);
+        if (cached != null)
+            return cached;
+
+        UserDetails loaded = loadUserByUsername(email);
+        UserDetails principal = new org.springframework.security.core.userdetails.User(loaded.getUsername(), "",
+                loaded.getAuthorities());
+        principals.put(email, principal);
+        return principal;
+    }
+
+    // Suspended, rejected or deleted users must not keep riding on cached state
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getType() == UserLifecycleEvent.Type.DELETED || event.getStatus() == UserStatus.Suspended
+                || event.getStatus() == UserStatus.Rejected) {
+            principals.invalidate(event.getEmail());
+            jwtUtil.evictTokensFor(event.getEmail());
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.helpbridge.service;
+
+import com.helpbridge.config.BoundedVirtualTaskExecutor;
+import com.helpbridge.event.ServiceRequestCreatedEvent;
+import com.helpbridge.model.ServiceRequest;
+import com.helpbridge.model.Volunteer;
+import com.helpbridge.repository.VolunteerRepository;
+import com.helpbridge.util.GeoGridIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class VolunteerFanOutService {
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private NotificationWriter notificationWriter;
+
+    @Autowired
+    private GeoMatchingService geoMatchingService;
+
+    @Value("${helpbridge.geo.fanout-radius-km:15}")
+    private double fanOutRadiusKm;
+
+    @Autowired
+    @Qualifier("emailExecutor")
+    private AsyncTaskExecutor emailExecutor;
+
+    @Autowired
+    @Qualifier("fanOutExecutor")
+    private AsyncTaskExecutor fanOutExecutor;
+
+    @Value("${helpbridge.fanout.submit-timeout-ms:2000}")
+    private long submitTimeoutMs;
+
+    @Value("${helpbridge.fanout.page-size:200}")
+    private int pageSize;
+
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong emailsSent = new AtomicLong();
+    private final AtomicLong totalBatchMillis = new AtomicLong();
+    private final AtomicLong maxBatchMillis = new AtomicLong();
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+    private final AtomicLong submitRetries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Runs only once the request row is committed. The walk itself happens on
+    // the fan-out pool so the student's POST never waits for volunteers to be
+    // loaded or mailed; if that pool is full we wait up to submit-timeout-ms
+    // for room (slowing the poster down) before giving up on this request.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ServiceRequestCreatedEvent event) {
+        ServiceRequest request = event.getRequest();
+        long deadline = System.currentTimeMillis() + submitTimeoutMs;
+        while (true) {
+            try {
+                fanOutExecutor.execute(() -> fanOut(request));
+                return;
+            } catch (TaskRejectedException e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    rejected.incrementAndGet();
+                    System.err.println("Fan-out skipped for request " + request.getId() + ": " + e.getMessage());
+                    return;
+                }
+                submitRetries.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    rejected.incrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fanOut(ServiceRequest request) {
+
+        // Same message for every volunteer, build it once
+        String subject = "New Request Nearby";
+        String body = "A new request has been posted in your city: " + request.getDescription();
+
+        // Prefer approved volunteers within range of the student; city spelling no longer matters
+        double[] origin = geoMatchingService.requestLocation(request.getId());
+        if (origin != null) {
+            List<Long> nearby = geoMatchingService.volunteersWithin(origin[0], origin[1], fanOutRadiusKm).stream()
+                    .map(GeoGridIndex.Hit::getId).toList();
+            if (!nearby.isEmpty()) {
+                for (int from = 0; from < nearby.size(); from += pageSize) {
+                    List<Long> ids = nearby.subList(from, Math.min(from + pageSize, nearby.size()));
+                    List<String> recipients = volunteerRepository.findEmailsByIdIn(ids);
+                    emailExecutor.execute(() -> sendBatch(recipients, subject, body));
+                    notificationWriter.enqueueAll(ids, body);
+                }
+                return;
+            }
+        }
+        if (request.getCity() == null)
+            return;
+
+        Long afterId = 0L;
+        while (true) {
+            List<Volunteer> page = volunteerRepository.findPageByCity(request.getCity(), afterId,
+                    PageRequest.of(0, pageSize));
+            if (page.isEmpty())
+                break;
+
+            List<String> recipients = page.stream().map(Volunteer::getEmail).toList();
+            emailExecutor.execute(() -> sendBatch(recipients, subject, body));
+            notificationWriter.enqueueAll(page.stream().map(Volunteer::getId).toList(), body);
+
+            if (page.size() < pageSize)
+                break;
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private void sendBatch(List<String> recipients, String subject, String body) {
+        long start = System.currentTimeMillis();
+        emailService.sendEmails(recipients, subject, body);
+        long elapsed = System.currentTimeMillis() - start;
+
+        batchesSent.incrementAndGet();
+        emailsSent.addAndGet(recipients.size());
+        totalBatchMillis.addAndGet(elapsed);
+        lastBatchMillis.set(elapsed);
+        maxBatchMillis.accumulateAndGet(elapsed, Math::max);
+    }
+
+    public Map<String, Object> getStats() {
+        long batches = batchesSent.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (emailExecutor instanceof ThreadPoolTaskExecutor pool) {
+            stats.put("queueDepth", pool.getThreadPoolExecutor().getQueue().size());
+            stats.put("activeWorkers", pool.getActiveCount());
+        } else if (emailExecutor instanceof BoundedVirtualTaskExecutor virtual) {
+            stats.put("queueDepth", virtual.getQueueSize());
+            stats.put("activeWorkers", virtual.getActiveCount());
+        }
+        stats.put("batchesSent", batches);
+        stats.put("emailsSent", emailsSent.get());
+        stats.put("lastBatchMillis", lastBatchMillis.get());
+        stats.put("avgBatchMillis", batches == 0 ? 0 : totalBatchMillis.get() / batches);
+        stats.put("maxBatchMillis", maxBatchMillis.get());
+        stats.put("submitRetries", submitRetries.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
@@ -0,0 +1,485 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.event.RequestCountsAdjustedEvent;
+import com.helpbridge.event.RequestStatusChangedEvent;
+import com.helpbridge.event.ServiceRequestDeletedEvent;
+import com.helpbridge.event.UserLifecycleEvent;
+import com.helpbridge.model.ServiceRequest;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.repository.VolunteerRepository;
+import com.helpbridge.util.GeoGridIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Ranks approved volunteers for a request. Candidates come from the geo index
+ * (or the request's city when there is no position) and are scored from
+ * in-memory profiles: distance, how well their interests match the request
+ * description, whether their availability covers the requested day and time,
+ * how many assignments they already hold and how often they turned one down.
+ * Profiles are loaded once and kept current from domain events, so ranking
+ * never touches the database. The periodic rebuild loads a fresh set on the
+ * side; events that arrive meanwhile are replayed onto it before it is
+ * swapped in. Bulk releases and deletions do not say which volunteers they
+ * touched, so they mark the profiles stale and trigger an early rebuild.
+ */
+@Service
+public class VolunteerMatchingService {
+
+    private static final List<RequestStatus> OPEN = List.of(RequestStatus.ASSIGNED, RequestStatus.ACCEPTED,
+            RequestStatus.IN_PROGRESS);
+
+    // Availability flags parsed from the free-text field
+    private static final int WEEKDAYS = 1, WEEKENDS = 2, MORNINGS = 4, AFTERNOONS = 8, EVENINGS = 16, ANYTIME = 32;
+    private static final int DAY_FLAGS = WEEKDAYS | WEEKENDS;
+    private static final int TIME_FLAGS = MORNINGS | AFTERNOONS | EVENINGS;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Autowired
+    private GeoMatchingService geoMatchingService;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Value("${helpbridge.matching.weight.distance:0.35}")
+    private double distanceWeight;
+
+    @Value("${helpbridge.matching.weight.interests:0.25}")
+    private double interestWeight;
+
+    @Value("${helpbridge.matching.weight.availability:0.15}")
+    private double availabilityWeight;
+
+    @Value("${helpbridge.matching.weight.load:0.15}")
+    private double loadWeight;
+
+    @Value("${helpbridge.matching.weight.reliability:0.10}")
+    private double reliabilityWeight;
+
+    // A volunteer holding this many open assignments is not offered more
+    @Value("${helpbridge.matching.max-open-assignments:3}")
+    private int maxOpenAssignments;
+
+    @Value("${helpbridge.matching.max-distance-km:50}")
+    private double maxDistanceKm;
+
+    // How many nearest volunteers are scored per request
+    @Value("${helpbridge.matching.candidate-pool:200}")
+    private int candidatePool;
+
+    private volatile Map<Long, Profile> profiles = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<Long>> byCity = new ConcurrentHashMap<>();
+    // Non-null during a rebuild, guarded by this. Rejections are read with the
+    // profiles, so their replay starts later than the open-count replay.
+    private List<BiConsumer<Map<Long, Profile>, Map<String, Set<Long>>>> replay;
+    private List<Long> rejectionReplay;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpbridge.geo.rebuild-interval-ms:600000}",
+            initialDelayString = "${helpbridge.geo.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            stale.set(true); // one is running; go again afterwards
+            return;
+        }
+        try {
+            // Recording starts before the counts are read, so every event the
+            // count query cannot have seen is replayed, and none it did see
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            Map<Long, Integer> open = new HashMap<>();
+            for (Object[] row : requestRepository.countOpenByVolunteer(OPEN)) {
+                open.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            synchronized (this) {
+                rejectionReplay = new ArrayList<>();
+            }
+            Map<Long, Profile> p = new ConcurrentHashMap<>();
+            Map<String, Set<Long>> c = new ConcurrentHashMap<>();
+            for (Object[] row : volunteerRepository.findProfilesByStatus(UserStatus.Approved)) {
+                Profile profile = toProfile(row);
+                profile.open.set(open.getOrDefault(profile.id, 0));
+                p.put(profile.id, profile);
+                if (profile.city != null) {
+                    c.computeIfAbsent(profile.city, k -> ConcurrentHashMap.newKeySet()).add(profile.id);
+                }
+            }
+            synchronized (this) {
+                replay.forEach(change -> change.accept(p, c));
+                rejectionReplay.forEach(id -> countRejection(p, id));
+                profiles = p;
+                byCity = c;
+                replay = null;
+                rejectionReplay = null;
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+                rejectionReplay = null;
+            }
+            stale.set(true);
+            throw e;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${helpbridge.matching.stale-check-ms:30000}")
+    public void rebuildIfStale() {
+        if (stale.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    private synchronized void apply(BiConsumer<Map<Long, Profile>, Map<String, Set<Long>>> change) {
+        change.accept(profiles, byCity);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    private synchronized void applyRejection(Long volunteerId) {
+        countRejection(profiles, volunteerId);
+        if (rejectionReplay != null) {
+            rejectionReplay.add(volunteerId);
+        }
+    }
+
+    private static void countRejection(Map<Long, Profile> profiles, Long volunteerId) {
+        Profile profile = profiles.get(volunteerId);
+        if (profile != null) {
+            profile.rejections.incrementAndGet();
+        }
+    }
+
+    /** The k best volunteers for a request, best first. Volunteers already at capacity are left out. */
+    public List<Candidate> rank(ServiceRequest request, int k) {
+        k = Math.max(1, k);
+        Map<Long, Double> distances = new HashMap<>();
+        double[] origin = geoMatchingService.requestLocation(request.getId());
+        if (origin != null) {
+            for (GeoGridIndex.Hit hit : geoMatchingService.nearestVolunteers(origin[0], origin[1], candidatePool)) {
+                if (hit.getDistanceKm() <= maxDistanceKm) {
+                    distances.put(hit.getId(), hit.getDistanceKm());
+                }
+            }
+        }
+        Collection<Long> pool = distances.keySet();
+        if (pool.isEmpty()) {
+            Set<Long> sameCity = byCity.get(normalizeCity(request.getCity()));
+            pool = sameCity != null ? sameCity : List.of();
+        }
+
+        Set<String> wanted = tokens(request.getDescription());
+        int requestSlot = requestSlot(request);
+        List<Candidate> ranked = new ArrayList<>();
+        for (Long id : pool) {
+            Profile profile = profiles.get(id);
+            if (profile == null || profile.open.get() >= maxOpenAssignments)
+                continue;
+            Double distance = distances.get(id);
+            double score = distanceWeight * (distance == null ? 0.5 : 1 - distance / maxDistanceKm)
+                    + interestWeight * interestScore(profile, wanted)
+                    + availabilityWeight * availabilityScore(profile, requestSlot)
+                    + loadWeight * (1 - (double) profile.open.get() / maxOpenAssignments)
+                    + reliabilityWeight / (1 + 0.5 * profile.rejections.get());
+            ranked.add(new Candidate(id, score, distance, profile.open.get(), profile.rejections.get()));
+        }
+        ranked.sort(Comparator.comparingDouble(Candidate::getScore).reversed());
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    public List<Candidate> rank(Long requestId, int k) {
+        ServiceRequest request = requestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
+        return rank(request, k);
+    }
+
+    /**
+     * Assigns the best available volunteer to each pending request: the given
+     * ids, or the oldest pending requests up to limit. Each assignment commits
+     * on its own and bumps the volunteer's open count before the next request
+     * is ranked, so one volunteer is not handed the whole batch.
+     */
+    public List<Map<String, Object>> autoAssign(List<Long> requestIds, Long ngoId, int limit) {
+        limit = Math.max(1, limit);
+        List<ServiceRequest> pending = requestIds != null && !requestIds.isEmpty()
+                ? requestRepository.findByIdInAndStatus(requestIds, RequestStatus.PENDING)
+                : requestRepository.findByStatusOrderByCreatedAtAsc(RequestStatus.PENDING, PageRequest.of(0, limit));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (ServiceRequest request : pending) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requestId", request.getId());
+            List<Candidate> best = rank(request, 1);
+            if (best.isEmpty()) {
+                result.put("assigned", false);
+                result.put("reason", "No available volunteer in range");
+            } else {
+                Candidate candidate = best.get(0);
+                try {
+                    requestService.assignVolunteer(request.getId(), candidate.getVolunteerId(), ngoId);
+                    result.put("assigned", true);
+                    result.put("volunteerId", candidate.getVolunteerId());
+                    result.put("score", candidate.getScore());
+                    result.put("distanceKm", candidate.getDistanceKm());
+                } catch (Exception e) {
+                    result.put("assigned", false);
+                    result.put("reason", e.getMessage());
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private double interestScore(Profile profile, Set<String> wanted) {
+        if (profile.interests.isEmpty() || wanted.isEmpty())
+            return 0;
+        int matched = 0;
+        for (String interest : profile.interests) {
+            if (wanted.contains(interest)) {
+                matched++;
+            }
+        }
+        return Math.min(1, matched / 2.0);
+    }
+
+    // Half for the day, half for the time of day; unknown on either side counts as half a match
+    private double availabilityScore(Profile profile, int requestSlot) {
+        if ((profile.availability & ANYTIME) != 0)
+            return 1;
+        return slotScore(profile.availability & DAY_FLAGS, requestSlot & DAY_FLAGS)
+                + slotScore(profile.availability & TIME_FLAGS, requestSlot & TIME_FLAGS);
+    }
+
+    private double slotScore(int offered, int wanted) {
+        if (offered == 0 || wanted == 0)
+            return 0.25;
+        return (offered & wanted) != 0 ? 0.5 : 0;
+    }
+
+    private int requestSlot(ServiceRequest request) {
+        int slot = 0;
+        if (request.getRequestDate() != null) {
+            DayOfWeek day = request.getRequestDate().getDayOfWeek();
+            slot |= (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) ? WEEKENDS : WEEKDAYS;
+        }
+        if (request.getRequestTime() != null) {
+            int hour = request.getRequestTime().getHour();
+            slot |= hour < 12 ? MORNINGS : hour < 17 ? AFTERNOONS : EVENINGS;
+        }
+        return slot;
+    }
+
+    private static int parseAvailability(String text) {
+        if (text == null)
+            return 0;
+        String t = text.toLowerCase(Locale.ROOT);
+        int flags = 0;
+        if (t.contains("any") || t.contains("flexible") || t.contains("all day") || t.contains("always"))
+            flags |= ANYTIME;
+        if (t.contains("weekday") || t.contains("monday") || t.contains("friday"))
+            flags |= WEEKDAYS;
+        if (t.contains("weekend") || t.contains("saturday") || t.contains("sunday"))
+            flags |= WEEKENDS;
+        if (t.contains("morning"))
+            flags |= MORNINGS;
+        if (t.contains("afternoon"))
+            flags |= AFTERNOONS;
+        if (t.contains("evening") || t.contains("night"))
+            flags |= EVENINGS;
+        return flags;
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null)
+            return tokens;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.length() >= 3) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalizeCity(String city) {
+        return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Profile toProfile(Object[] row) {
+        Integer rejections = (Integer) row[6];
+        return new Profile((Long) row[0], normalizeCity((String) row[3]), parseAvailability((String) row[4]),
+                tokens((String) row[5]), rejections == null ? 0 : rejections);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        if (event.getRole() != RoleType.Volunteer)
+            return;
+        Long userId = event.getUserId();
+        List<Object[]> rows = event.getStatus() == UserStatus.Approved ? volunteerRepository.findProfile(userId)
+                : List.of();
+        apply((profiles, byCity) -> {
+            Profile old = profiles.remove(userId);
+            if (old != null && old.city != null) {
+                Set<Long> ids = byCity.get(old.city);
+                if (ids != null) {
+                    ids.remove(old.id);
+                }
+            }
+            if (rows.isEmpty())
+                return;
+            Profile profile = toProfile(rows.get(0));
+            if (old != null) {
+                profile.open.set(old.open.get());
+            }
+            profiles.put(profile.id, profile);
+            if (profile.city != null) {
+                byCity.computeIfAbsent(profile.city, k -> ConcurrentHashMap.newKeySet()).add(profile.id);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        // Who held the request as an open assignment before and after; on a
+        // reassignment both are open and the holder changes
+        Long before = OPEN.contains(event.getPreviousStatus()) ? event.getPreviousVolunteerId() : null;
+        Long after = OPEN.contains(event.getStatus()) ? event.getVolunteerId() : null;
+        if (!Objects.equals(before, after)) {
+            apply((profiles, byCity) -> {
+                Profile released = before != null ? profiles.get(before) : null;
+                if (released != null) {
+                    released.open.updateAndGet(n -> Math.max(0, n - 1));
+                }
+                Profile taken = after != null ? profiles.get(after) : null;
+                if (taken != null) {
+                    taken.open.incrementAndGet();
+                }
+            });
+        }
+        // Only rejectAssignment sends an ASSIGNED request back to PENDING
+        if (event.getPreviousStatus() == RequestStatus.ASSIGNED && event.getStatus() == RequestStatus.PENDING
+                && event.getPreviousVolunteerId() != null) {
+            applyRejection(event.getPreviousVolunteerId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestDeleted(ServiceRequestDeletedEvent event) {
+        Long holder = event.getVolunteerId();
+        if (holder != null && OPEN.contains(event.getStatus())) {
+            apply((profiles, byCity) -> {
+                Profile released = profiles.get(holder);
+                if (released != null) {
+                    released.open.updateAndGet(n -> Math.max(0, n - 1));
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCountsAdjusted(RequestCountsAdjustedEvent event) {
+        stale.set(true);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("profiles", profiles.size());
+        stats.put("cities", byCity.size());
+        stats.put("stale", stale.get());
+        stats.put("atCapacity", profiles.values().stream().filter(p -> p.open.get() >= maxOpenAssignments).count());
+        return stats;
+    }
+
+    private static final class Profile {
+        private final Long id;
+        private final String city;
+        private final int availability;
+        private final Set<String> interests;
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger rejections;
+
+        private Profile(Long id, String city, int availability, Set<String> interests, int rejections) {
+            this.id = id;
+            this.city = city;
+            this.availability = availability;
+            this.interests = interests;
+            this.rejections = new AtomicInteger(rejections);
+        }
+    }
+
+    public static class Candidate {
+        private final Long volunteerId;
+        private final double score;
+        private final Double distanceKm;
+        private final int openAssignments;
+        private final int rejectedAssignments;
+
+        public Candidate(Long volunteerId, double score, Double distanceKm, int openAssignments,
+                int rejectedAssignments) {
+            this.volunteerId = volunteerId;
+            this.score = score;
+            this.distanceKm = distanceKm;
+            this.openAssignments = openAssignments;
+            this.rejectedAssignments = rejectedAssignments;
+        }
+
+        public Long getVolunteerId() {
+            return volunteerId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public int getOpenAssignments() {
+            return openAssignments;
+        }
+
+        public int getRejectedAssignments() {
+            return rejectedAssignments;
+        }
+    }
+}
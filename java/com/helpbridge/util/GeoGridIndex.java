@@ -0,0 +1,145 @@
+package com.helpbridge.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory point index over fixed lat/lon grid cells. Radius queries only
+ * visit the cells overlapping the search box and then check the exact
+ * great-circle distance; k-nearest widens the radius until it has k hits.
+ * Safe for concurrent reads and writes. Does not wrap at the antimeridian,
+ * which is fine for a service that operates within one country.
+ */
+public class GeoGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, double[]> points = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void put(Long id, double lat, double lon) {
+        double[] previous = points.put(id, new double[] { lat, lon });
+        if (previous != null) {
+            removeFromCell(id, cellKey(previous[0], previous[1]));
+        }
+        // Add inside compute so a concurrent removal can't drop the cell in between
+        cells.compute(cellKey(lat, lon), (k, ids) -> {
+            Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            set.add(id);
+            return set;
+        });
+    }
+
+    public void remove(Long id) {
+        double[] previous = points.remove(id);
+        if (previous != null) {
+            removeFromCell(id, cellKey(previous[0], previous[1]));
+        }
+    }
+
+    public double[] get(Long id) {
+        return points.get(id);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /** Every point within radiusKm, nearest first. */
+    public List<Hit> withinRadius(double lat, double lon, double radiusKm) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        long minLat = cellIndex(lat - latSpan);
+        long maxLat = cellIndex(lat + latSpan);
+        long minLon = cellIndex(lon - lonSpan);
+        long maxLon = cellIndex(lon + lonSpan);
+
+        List<Hit> hits = new ArrayList<>();
+        for (long y = minLat; y <= maxLat; y++) {
+            for (long x = minLon; x <= maxLon; x++) {
+                Set<Long> ids = cells.get(key(y, x));
+                if (ids == null)
+                    continue;
+                for (Long id : ids) {
+                    double[] p = points.get(id);
+                    if (p == null)
+                        continue;
+                    double d = distanceKm(lat, lon, p[0], p[1]);
+                    if (d <= radiusKm) {
+                        hits.add(new Hit(id, d));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits;
+    }
+
+    /** Up to k nearest points no further than maxKm, nearest first. */
+    public List<Hit> nearest(double lat, double lon, int k, double maxKm) {
+        // Start at about one cell and double; once a radius holds k points, those are the k nearest
+        double radius = Math.min(cellDegrees * KM_PER_DEGREE, maxKm);
+        while (true) {
+            List<Hit> hits = withinRadius(lat, lon, radius);
+            if (hits.size() >= k || radius >= maxKm) {
+                return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+            }
+            radius = Math.min(radius * 2, maxKm);
+        }
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void removeFromCell(Long id, long cellKey) {
+        cells.computeIfPresent(cellKey, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double lat, double lon) {
+        return key(cellIndex(lat), cellIndex(lon));
+    }
+
+    private static long key(long y, long x) {
+        return (y << 32) | (x & 0xffffffffL);
+    }
+
+    public static final class Hit {
+        private final Long id;
+        private final double distanceKm;
+
+        public Hit(Long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
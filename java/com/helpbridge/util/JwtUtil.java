@@ -1,6 +1,7 @@
 package com.helpbridge.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,7 +20,15 @@ public class JwtUtil {
     private final Key key;
     private final long expiration;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+    // Immutable and thread-safe, built once instead of per parse
+    private final JwtParser parser;
+
+    // token -> claims whose signature has already been verified
+    private final TtlCache<String, Claims> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.cache.ttl-ms:300000}") long cacheTtlMs,
+            @Value("${jwt.cache.max-size:10000}") int cacheMaxSize) {
         // Ensure secret is long enough, or hash it to create a key.
         // For simplicity reusing the string directly if length is sufficient,
         // but typically should use Keys.hmacShaKeyFor(bytes).
@@ -30,6 +39,8 @@ public class JwtUtil {
         // HS256 requires 32 bytes (256 bits). 37 chars is enough.
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expiration = expiration;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = new TtlCache<>(cacheTtlMs, cacheMaxSize);
     }
 
     public String extractUsername(String token) {
@@ -46,11 +57,26 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the token once and remembers its claims until it expires (or the
+     * cache TTL runs out), so repeat requests with the same token skip the
+     * signature check. Throws like the parser for invalid or expired tokens.
+     */
+    public Claims parseVerified(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims == null) {
+            claims = extractAllClaims(token);
+            long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+            verifiedTokens.put(token, claims, remaining);
+        }
+        return claims;
+    }
+
+    public void evictTokensFor(String username) {
+        verifiedTokens.invalidateIf((token, claims) -> username.equals(claims.getSubject()));
     }
 
     public String generateToken(String username, String role) {
@@ -70,7 +96,7 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(username) && !claims.getExpiration().before(new Date()));
     }
 }
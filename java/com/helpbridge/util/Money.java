@@ -0,0 +1,27 @@
+package com.helpbridge.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are stored as whole paise in BIGINT columns so sums are exact and
+ * can be incremented in the database. The API keeps speaking rupees; these
+ * convert at the edges.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    public static long toPaise(Double rupees) {
+        if (rupees == null)
+            return 0;
+        if (rupees.isNaN() || rupees.isInfinite())
+            throw new RuntimeException("Invalid amount");
+        return BigDecimal.valueOf(rupees).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static Double toRupees(Long paise) {
+        return paise == null ? 0.0 : BigDecimal.valueOf(paise, 2).doubleValue();
+    }
+}
@@ -0,0 +1,46 @@
+package com.helpbridge.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A sum spread over several cells so concurrent writers rarely touch the same
+ * cache line. Unlike LongAdder.sumThenReset, {@link #drain()} is exact: each
+ * cell is emptied with getAndSet, so an add is either in the drained total or
+ * left for the next drain, never lost.
+ */
+public class StripedLongCounter {
+
+    // Cells sit 8 longs (64 bytes) apart
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedLongCounter(int stripes) {
+        int n = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.cells = new AtomicLongArray(n * PAD);
+        this.mask = n - 1;
+    }
+
+    public void add(long x) {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        cells.addAndGet(((h ^ (h >>> 16)) & mask) * PAD, x);
+    }
+
+    public long sum() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.get(i * PAD);
+        }
+        return total;
+    }
+
+    public long drain() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PAD, 0);
+        }
+        return total;
+    }
+}
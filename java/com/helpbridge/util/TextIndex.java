@@ -0,0 +1,486 @@
+package com.helpbridge.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index ranked with BM25. Text is lower-cased and split
+ * on anything that isn't a letter or digit; title and tag words count three
+ * times. Each query word matches the term itself, terms it is a prefix of,
+ * and, when asked for or when nothing else matched, terms within edit
+ * distance 1 (2 for words of six letters or more) that start with the same
+ * letter. Terms are kept sorted so prefixes are range scans.
+ *
+ * Documents are numbered and postings are plain int arrays, so a query
+ * walks arrays and accumulates into score arrays rather than hashing every
+ * match. The score arrays are borrowed from a small shared pool instead of
+ * being kept per thread, since with virtual threads every request would
+ * otherwise own a set sized to the whole index. Reads share a lock, writes
+ * take it exclusively.
+ */
+public class TextIndex {
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MAX_EXPANSIONS = 32;
+
+    // Idle workspaces; a query finding none allocates its own and keeps it only if there is room
+    private static final BlockingQueue<Workspace> WORKSPACES =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Doc> byKey = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>(); // by number, null for a free slot
+    private int[] lengths = new int[16]; // by number, read in the scoring loop instead of Doc
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    private long totalLength;
+
+    // Tags are indexed like the title but not kept for display
+    public void put(String key, String type, Long id, String title, String body, String tags, String city,
+            String status) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : tokenize(title)) {
+            tf.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(tags)) {
+            tf.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(body)) {
+            tf.merge(term, 1, Integer::sum);
+        }
+        Doc doc = new Doc(key, type, id, title, body, city, status);
+        doc.terms = tf.keySet().toArray(new String[0]);
+        doc.length = tf.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (freeSlots.isEmpty()) {
+                doc.number = docs.size();
+                docs.add(doc);
+                if (doc.number == lengths.length) {
+                    lengths = Arrays.copyOf(lengths, lengths.length * 2);
+                }
+            } else {
+                doc.number = freeSlots.pop();
+                docs.set(doc.number, doc);
+            }
+            lengths[doc.number] = doc.length;
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new Posting()).add(doc.number, e.getValue());
+            }
+            byKey.put(key, doc);
+            totalLength += doc.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Status is a filter field only, so it changes in place without reindexing the text
+    public boolean updateStatus(String key, String status) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = byKey.get(key);
+            if (doc == null)
+                return false;
+            doc.status = status;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String key) {
+        Doc doc = byKey.remove(key);
+        if (doc == null)
+            return;
+        for (String term : doc.terms) {
+            Posting posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(doc.number);
+                if (posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        docs.set(doc.number, null);
+        freeSlots.push(doc.number);
+        totalLength -= doc.length;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching any word of the query and accepted by the filter,
+     * best first, skipping offset and returning at most limit. The total
+     * counts every match.
+     */
+    public Result search(String query, Predicate<Doc> filter, boolean fuzzy, int offset, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokenize(query));
+        if (words.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        Workspace ws = WORKSPACES.poll();
+        if (ws == null) {
+            ws = new Workspace();
+        }
+        lock.readLock().lock();
+        try {
+            int n = byKey.size();
+            double avgLength = n == 0 ? 1 : Math.max(1, totalLength / (double) n);
+            ws.ensure(docs.size());
+            // 0 = not tested yet, 1 = passes the filter, 2 = filtered out
+            byte[] allowed = ws.allowed;
+            int[] lengths = this.lengths;
+            double[] scores = ws.scores;
+            double[] best = ws.best;
+            int matched = 0;
+            try {
+                for (String word : words) {
+                    // A document scores once per query word, through its best matching term
+                    int bestCount = 0;
+                    for (Map.Entry<String, Double> expansion : expand(word, fuzzy).entrySet()) {
+                        Posting posting = postings.get(expansion.getKey());
+                        double idf = Math.log(1 + (n - posting.size + 0.5) / (posting.size + 0.5));
+                        double weight = expansion.getValue() * idf * (K1 + 1);
+                        double perLength = K1 * B / avgLength;
+                        int[] postingDocs = posting.docs;
+                        int[] tfs = posting.tfs;
+                        for (int i = 0; i < posting.size; i++) {
+                            int d = postingDocs[i];
+                            if (allowed[d] == 0) {
+                                allowed[d] = filter.test(docs.get(d)) ? (byte) 1 : (byte) 2;
+                                ws.tested[ws.testedCount++] = d;
+                            }
+                            if (allowed[d] == 2)
+                                continue;
+                            double tf = tfs[i];
+                            double score = weight * tf / (tf + K1 * (1 - B) + perLength * lengths[d]);
+                            if (best[d] == 0) {
+                                ws.bestTouched[bestCount++] = d;
+                            }
+                            if (score > best[d]) {
+                                best[d] = score;
+                            }
+                        }
+                    }
+                    for (int j = 0; j < bestCount; j++) {
+                        int d = ws.bestTouched[j];
+                        if (scores[d] == 0) {
+                            ws.matched[matched++] = d;
+                        }
+                        scores[d] += best[d];
+                        best[d] = 0;
+                    }
+                }
+                return new Result(top(scores, ws.matched, matched, offset, limit), matched);
+            } finally {
+                // Leave the arrays zeroed for the next query to borrow them
+                for (int j = 0; j < matched; j++) {
+                    scores[ws.matched[j]] = 0;
+                }
+                for (int j = 0; j < ws.testedCount; j++) {
+                    allowed[ws.tested[j]] = 0;
+                }
+                ws.testedCount = 0;
+            }
+        } finally {
+            lock.readLock().unlock();
+            WORKSPACES.offer(ws);
+        }
+    }
+
+    // Indexed terms a query word stands for, with the weight of each kind of match
+    private Map<String, Double> expand(String word, boolean fuzzy) {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        if (postings.containsKey(word)) {
+            terms.put(word, 1.0);
+        }
+        if (word.length() >= 2) {
+            // The most common completions when there are too many to use all
+            Map<String, Posting> completions = postings.subMap(word, false, word + Character.MAX_VALUE, false);
+            for (String term : mostFrequent(completions, MAX_EXPANSIONS)) {
+                terms.put(term, 0.8);
+            }
+        }
+        if ((fuzzy || terms.isEmpty()) && word.length() >= 3) {
+            int maxEdits = word.length() >= 6 ? 2 : 1;
+            String first = word.substring(0, 1);
+            int added = 0;
+            for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (terms.containsKey(term) || Math.abs(term.length() - word.length()) > maxEdits)
+                    continue;
+                int edits = distance(word, term, maxEdits);
+                if (edits <= maxEdits) {
+                    terms.put(term, edits == 1 ? 0.6 : 0.4);
+                    if (++added == MAX_EXPANSIONS)
+                        break;
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> mostFrequent(Map<String, Posting> candidates, int limit) {
+        if (candidates.size() <= limit) {
+            return new ArrayList<>(candidates.keySet());
+        }
+        PriorityQueue<Map.Entry<String, Posting>> heap = new PriorityQueue<>(
+                Comparator.comparingInt(e -> e.getValue().size));
+        for (Map.Entry<String, Posting> e : candidates.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<String> terms = new ArrayList<>();
+        heap.forEach(e -> terms.add(e.getKey()));
+        return terms;
+    }
+
+    private List<Hit> top(double[] scores, int[] matched, int count, int offset, int limit) {
+        int k = offset + limit;
+        if (limit <= 0 || offset >= count) {
+            return List.of();
+        }
+        // Lowest score on top; on a tie the higher document number goes first
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int j = 0; j < count; j++) {
+            int d = matched[j];
+            if (heap.size() < k) {
+                heap.offer(d);
+            } else if (scores[d] > scores[heap.peek()]) {
+                heap.poll();
+                heap.offer(d);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int d = heap.poll();
+            hits.add(new Hit(docs.get(d), scores[d]));
+        }
+        Collections.reverse(hits);
+        return hits.subList(Math.min(offset, hits.size()), hits.size());
+    }
+
+    // Levenshtein distance, or max + 1 as soon as it is known to exceed max
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (term.length() >= 2) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Documents containing one term, with the term's weighted count in each
+    private static class Posting {
+        private int[] docs = new int[4];
+        private int[] tfs = new int[4];
+        private int size;
+
+        void add(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    tfs[i] = tfs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Scratch arrays indexed by document number, zeroed after each query
+    private static class Workspace {
+        private byte[] allowed = new byte[0];
+        private double[] scores = new double[0];
+        private double[] best = new double[0];
+        private int[] matched = new int[0];
+        private int[] bestTouched = new int[0];
+        private int[] tested = new int[0];
+        private int testedCount;
+
+        void ensure(int capacity) {
+            if (scores.length >= capacity)
+                return;
+            int size = Math.max(capacity, scores.length * 2);
+            allowed = new byte[size];
+            scores = new double[size];
+            best = new double[size];
+            matched = new int[size];
+            bestTouched = new int[size];
+            tested = new int[size];
+        }
+    }
+
+    public static class Doc {
+        private final String key;
+        private final String type;
+        private final Long id;
+        private final String title;
+        private final String body;
+        private final String city;
+        private volatile String status;
+        private String[] terms;
+        private int length;
+        private int number;
+
+        private Doc(String key, String type, Long id, String title, String body, String city, String status) {
+            this.key = key;
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.body = body;
+            this.city = city;
+            this.status = status;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    public static class Hit {
+        private final Doc doc;
+        private final double score;
+
+        Hit(Doc doc, double score) {
+            this.doc = doc;
+            this.score = score;
+        }
+
+        public Doc getDoc() {
+            return doc;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    public static class Result {
+        private final List<Hit> hits;
+        private final int total;
+
+        Result(List<Hit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -3,7 +3,7 @@ import { Grid, Box, Alert, Typography, Paper, List, ListItem, ListItemText, Divi
 import { History, FlashOn, TrendingUp, Assessment, School, VolunteerActivism, Business, Favorite } from '@mui/icons-material';
 import SummaryCard from '../../components/admin/SummaryCard';
 import LoadingSpinner from '../../components/common/LoadingSpinner';
-import { getDashboardSummary, getRecentActivities } from '../../services/adminService';
+import { getDashboardSummary, getRecentActivities, subscribeDashboard, applyDashboardDelta } from '../../services/adminService';
 
 const AdminDashboard = () => {
     const [summary, setSummary] = useState(null);
@@ -11,54 +11,36 @@ const AdminDashboard = () => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
 
-    const [debugInfo, setDebugInfo] = useState('');
-
     useEffect(() => {
-        const fetchData = async () => {
-            try {
-                // Note: We don't set loading(true) here to avoid flashing spinner on refresh
-                const [summaryData, activitiesData] = await Promise.all([
-                    getDashboardSummary(),
-                    getRecentActivities()
-                ]);
-                setSummary(summaryData);
-                setActivities(activitiesData);
-            } catch (err) {
-                console.error("Auto-refresh failed", err);
-                // We don't setError here to avoid blocking the UI on transient network errors during poll
-                if (loading) setError(err.message || 'Failed to load dashboard');
-            } finally {
-                setLoading(false);
-            }
-        };
+        // Recent activity doesn't change with the counters, load it once
+        getRecentActivities()
+            .then(setActivities)
+            .catch(err => console.error("Failed to load recent activities", err));
 
-        const fetchDebug = async () => {
-            try {
-                const user = JSON.parse(localStorage.getItem('user'));
-                const token = user?.token;
-                const res = await fetch('/api/admin/debug', {
-                    headers: { 'Authorization': `Bearer ${token}` }
-                });
-                const text = await res.text();
-                setDebugInfo(text);
-            } catch (e) {
-                // Silent fail on debug info refresh
-                console.log('Debug refresh failed', e);
+        // Counters arrive as a snapshot and are then kept current by pushed deltas
+        const unsubscribe = subscribeDashboard({
+            onSnapshot: (snapshot) => {
+                setSummary(snapshot);
+                setError(null);
+                setLoading(false);
+            },
+            onDelta: (delta) => setSummary(current => applyDashboardDelta(current, delta)),
+            onError: async (err) => {
+                console.error("Dashboard stream dropped, reconnecting", err);
+                // Still show something if the stream never comes up
+                try {
+                    const summaryData = await getDashboardSummary();
+                    setSummary(current => current || summaryData);
+                } catch (e) {
+                    setError(err.message || 'Failed to load dashboard');
+                } finally {
+                    setLoading(false);
+                }
             }
-        };
-
-        // First time load
-        fetchData();
-        fetchDebug();
-
-        // 🔥 AUTO REFRESH EVERY 5 SECONDS
-        const interval = setInterval(() => {
-            fetchData();
-            fetchDebug();
-        }, 5000);
+        });
 
         // Cleanup when component unmounts
-        return () => clearInterval(interval);
+        return unsubscribe;
     }, []);
 
     if (loading) return <LoadingSpinner />;
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { Container, Card, Button, Row, Col, Form, Alert, ProgressBar } from 'react-bootstrap';
 import { FaHandHoldingHeart, FaFilter, FaRupeeSign, FaSearch, FaGlobeAmericas } from 'react-icons/fa';
-import { getDonationNeeds, createDonationOrder, verifyDonationPayment, getRazorpayKey } from '../../services/donorService';
+import { getDonationNeeds, createDonationOrder, verifyDonationPayment, getRazorpayKey, simulateDonationPayment } from '../../services/donorService';
 import LoadingSpinner from '../../components/common/LoadingSpinner';
 
 const DonorDashboard = () => {
@@ -50,8 +50,9 @@ const DonorDashboard = () => {
             // 0. Fetch Key
             const key = await getRazorpayKey();
 
-            // 1. Create Order on Backend
-            const orderData = await createDonationOrder(need.id, parseFloat(amount));
+            // 1. Create Order on Backend (the donor id rides along in the order notes for the webhook)
+            const donor = JSON.parse(localStorage.getItem('user'));
+            const orderData = await createDonationOrder(need.id, parseFloat(amount), donor ? donor.userId : null);
 
             // CHECK FOR MOCK MODE
             if (orderData.mock) {
@@ -72,6 +73,17 @@ const DonorDashboard = () => {
                 return;
             }
 
+            // GATEWAY SIMULATOR: signed ids come from the simulator instead of the widget
+            if (orderData.simulated) {
+                const payment = await simulateDonationPayment(orderData.id);
+                const user = JSON.parse(localStorage.getItem('user'));
+                const userId = user ? user.userId : null;
+                await verifyDonationPayment({ ...payment, campaign_id: need.id, amount: parseFloat(amount) }, userId);
+                alert("Simulated Payment Successful!");
+                fetchData();
+                return;
+            }
+
             // 2. Open Razorpay Options
             const options = {
                 key: key,
@@ -15,7 +15,7 @@ const VolunteerDashboard = () => {
             const user = JSON.parse(localStorage.getItem('user'));
             const city = 'Pune'; // Default, ideally fetch from user profile
             const [nearbyData, myData] = await Promise.all([
-                getNearbyRequests(city),
+                getNearbyRequests(city, user.userId),
                 getMyTasks(user.userId)
             ]);
             setRequests(nearbyData);
@@ -80,3 +80,80 @@ export const suspendUser = async (userId) => {
     if (!res.ok) throw new Error('Failed to suspend user');
     return res.json();
 };
+
+// Live dashboard: the server sends a "snapshot" frame on connect and then
+// coalesced "delta" frames. fetch() is used instead of EventSource so the
+// Authorization header can be sent. Returns a function that closes the stream.
+export const subscribeDashboard = ({ onSnapshot, onDelta, onError }) => {
+    let controller = null;
+    let closed = false;
+    let retryTimer = null;
+
+    const connect = async () => {
+        controller = new AbortController();
+        try {
+            const res = await fetch('/api/admin/dashboard-stream', {
+                headers: { ...getAuthHeader(), 'Accept': 'text/event-stream' },
+                signal: controller.signal
+            });
+            if (!res.ok) throw new Error('Failed to open dashboard stream');
+
+            const reader = res.body.getReader();
+            const decoder = new TextDecoder();
+            let buffer = '';
+            while (true) {
+                const { value, done } = await reader.read();
+                if (done) break;
+                buffer += decoder.decode(value, { stream: true });
+                let boundary;
+                while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                    const frame = buffer.slice(0, boundary);
+                    buffer = buffer.slice(boundary + 2);
+                    let name = 'message';
+                    let data = '';
+                    frame.split('\n').forEach(line => {
+                        if (line.startsWith('event:')) name = line.slice(6).trim();
+                        else if (line.startsWith('data:')) data += line.slice(5).trim();
+                    });
+                    if (!data) continue; // heartbeat comment
+                    const payload = JSON.parse(data);
+                    if (name === 'snapshot') onSnapshot(payload);
+                    else if (name === 'delta') onDelta(payload);
+                }
+            }
+        } catch (err) {
+            if (closed) return;
+            if (onError) onError(err);
+        }
+        // Stream ended (server timeout, restart, network): reconnect and resync from a fresh snapshot
+        if (!closed) retryTimer = setTimeout(connect, 3000);
+    };
+
+    connect();
+
+    return () => {
+        closed = true;
+        clearTimeout(retryTimer);
+        if (controller) controller.abort();
+    };
+};
+
+export const applyDashboardDelta = (summary, delta) => {
+    if (!summary) return summary;
+    const next = { ...summary };
+    Object.entries(delta.roles || {}).forEach(([key, changes]) => {
+        const stats = { ...(next[key] || { total: 0, approved: 0, pending: 0 }) };
+        Object.entries(changes).forEach(([field, by]) => {
+            stats[field] = (stats[field] || 0) + by;
+        });
+        next[key] = stats;
+    });
+    const requests = { ...(next.requestsByStatus || {}) };
+    Object.entries(delta.requestsByStatus || {}).forEach(([status, by]) => {
+        requests[status] = (requests[status] || 0) + by;
+    });
+    next.requestsByStatus = requests;
+    next.donationCount = (next.donationCount || 0) + (delta.donationCount || 0);
+    next.donationTotal = (next.donationTotal || 0) + (delta.donationTotal || 0);
+    return next;
+};
@@ -23,8 +23,11 @@ export const donate = async (donationData) => {
     return res.json();
 };
 
-export const createDonationOrder = async (campaignId, amount) => {
-    const res = await fetch(`/api/payment/create-order/${campaignId}`, {
+export const createDonationOrder = async (campaignId, amount, userId) => {
+    let url = `/api/payment/create-order/${campaignId}`;
+    if (userId) url += `?userId=${userId}`;
+
+    const res = await fetch(url, {
         method: 'POST',
         headers: getAuthHeader(),
         body: JSON.stringify({ amount })
@@ -49,6 +52,17 @@ export const verifyDonationPayment = async (paymentData, userId) => {
     return res.json();
 };
 
+// Gateway simulator only: pays the order the way the checkout widget would
+export const simulateDonationPayment = async (orderId) => {
+    const res = await fetch('/simulator/razorpay/v1/payments/simulate', {
+        method: 'POST',
+        headers: getAuthHeader(),
+        body: JSON.stringify({ order_id: orderId })
+    });
+    if (!res.ok) throw new Error('Simulated payment failed');
+    return res.json();
+};
+
 export const getRazorpayKey = async () => {
     const res = await fetch('/api/payment/key', {
         headers: getAuthHeader()
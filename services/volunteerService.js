@@ -5,8 +5,11 @@ const getAuthHeader = () => {
     return user?.token ? { 'Authorization': `Bearer ${user.token}`, 'Content-Type': 'application/json' } : { 'Content-Type': 'application/json' };
 };
 
-export const getNearbyRequests = async (city) => {
-    const res = await fetch(`/api/requests/nearby?city=${city}`, {
+// Matched by distance from the volunteer's registered location; city is the fallback
+export const getNearbyRequests = async (city, volunteerId) => {
+    const params = new URLSearchParams({ city });
+    if (volunteerId) params.append('volunteerId', volunteerId);
+    const res = await fetch(`/api/requests/nearby?${params}`, {
         headers: getAuthHeader()
     });
     if (!res.ok) throw new Error('Failed to fetch nearby requests');
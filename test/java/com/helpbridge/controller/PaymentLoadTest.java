@@ -0,0 +1,233 @@
+package com.helpbridge.controller;
+
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.model.Donation;
+import com.helpbridge.model.HelpPost;
+import com.helpbridge.model.NGO;
+import com.helpbridge.repository.DonationRepository;
+import com.helpbridge.repository.HelpPostRepository;
+import com.helpbridge.repository.NGORepository;
+import com.helpbridge.service.CampaignTotalsService;
+import com.helpbridge.service.HelpPostService;
+import com.helpbridge.service.PaymentSimulatorService;
+import com.helpbridge.service.PaymentWebhookService;
+import com.helpbridge.util.Money;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test for PaymentController against the built-in gateway simulator,
+ * over real HTTP: many donors concurrently create an order, pay it and
+ * verify it, while the simulator delivers each payment.captured webhook
+ * twice. Every call must succeed, each order must end up with exactly one
+ * donation, and the campaign total must equal the ledger once the webhooks
+ * are applied and the totals flushed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@ActiveProfiles("test")
+class PaymentLoadTest {
+
+    private static final int PORT = freePort();
+    private static final int CLIENTS = 16;
+    private static final int DONORS = 200;
+    private static final int WEBHOOK_REPLAYS = 1;
+    private static final double AMOUNT = 101.25;
+
+    @DynamicPropertySource
+    static void gateway(DynamicPropertyRegistry registry) {
+        String base = "http://localhost:" + PORT;
+        registry.add("server.port", () -> PORT);
+        registry.add("razorpay.key.id", () -> "rzp_test_loadtest");
+        registry.add("razorpay.key.secret", () -> "loadtest_secret");
+        registry.add("razorpay.webhook-secret", () -> "loadtest_webhook_secret");
+        registry.add("razorpay.api-url", () -> base + "/simulator/razorpay/v1");
+        registry.add("razorpay.max-concurrent-calls", () -> CLIENTS * 2);
+        registry.add("helpbridge.payments.simulator.enabled", () -> true);
+        registry.add("helpbridge.payments.simulator.latency-ms", () -> 20);
+        registry.add("helpbridge.payments.simulator.webhook-url", () -> base + "/api/payment/webhook");
+        registry.add("helpbridge.payments.simulator.webhook-replays", () -> WEBHOOK_REPLAYS);
+    }
+
+    @Autowired
+    private HelpPostService helpPostService;
+
+    @Autowired
+    private NGORepository ngoRepository;
+
+    @Autowired
+    private HelpPostRepository helpPostRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private PaymentSimulatorService paymentSimulatorService;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void concurrentDonorsAreRecordedOnceEach() throws Exception {
+        Long campaignId = campaign();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<String> orderIds = Collections.synchronizedList(new ArrayList<>());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < DONORS; i++) {
+                Callable<Void> donor = () -> {
+                    start.await();
+                    long began = System.nanoTime();
+                    orderIds.add(donate(campaignId));
+                    latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began));
+                    return null;
+                };
+                results.add(pool.submit(donor));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report(latencies);
+
+        // The webhooks land after the verify calls; wait until every delivery is in and applied
+        long expectedDeliveries = (long) DONORS * (WEBHOOK_REPLAYS + 1);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> sim = paymentSimulatorService.getStats();
+            Map<String, Object> hooks = paymentWebhookService.getStats();
+            long delivered = ((Number) sim.get("webhooksSent")).longValue()
+                    + ((Number) sim.get("webhooksFailed")).longValue();
+            if (delivered >= expectedDeliveries && ((Number) hooks.get("buffered")).intValue() == 0
+                    && ((Number) hooks.get("heldInMemory")).intValue() == 0) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        paymentWebhookService.applyBuffered();
+        campaignTotalsService.flush();
+
+        assertEquals(expectedDeliveries, ((Number) paymentSimulatorService.getStats().get("webhooksSent")).longValue());
+        assertEquals(0L, ((Number) paymentSimulatorService.getStats().get("webhooksFailed")).longValue());
+
+        Map<String, Integer> perOrder = new HashMap<>();
+        for (Donation donation : donationRepository.findByCampaignId(campaignId)) {
+            perOrder.merge(donation.getRazorpayOrderId(), 1, Integer::sum);
+        }
+        assertEquals(DONORS, perOrder.size());
+        for (String orderId : orderIds) {
+            assertEquals(1, perOrder.getOrDefault(orderId, 0), orderId);
+        }
+
+        long ledger = 0;
+        for (Object[] row : donationRepository.sumSuccessfulByCampaign()) {
+            if (campaignId.equals(((Number) row[0]).longValue())) {
+                ledger = ((Number) row[1]).longValue();
+            }
+        }
+        HelpPost post = helpPostRepository.findById(campaignId).orElseThrow();
+        assertEquals(DONORS * Money.toPaise(AMOUNT), ledger);
+        assertEquals(ledger, Money.toPaise(post.getCollectedAmount()));
+    }
+
+    // One donor's checkout: create the order, pay it at the simulator, verify it. Returns the order id.
+    private String donate(Long campaignId) throws IOException, InterruptedException {
+        JSONObject order = post("/api/payment/create-order/" + campaignId, new JSONObject().put("amount", AMOUNT));
+        String orderId = order.getString("id");
+        JSONObject paid = post("/simulator/razorpay/v1/payments/simulate", new JSONObject().put("order_id", orderId));
+        paid.put("campaign_id", campaignId);
+        paid.put("amount", AMOUNT);
+        JSONObject verified = post("/api/payment/verify", paid);
+        assertEquals("success", verified.getString("status"));
+        return orderId;
+    }
+
+    private JSONObject post(String path, JSONObject body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), path + ": " + response.body());
+        return new JSONObject(response.body());
+    }
+
+    private static void report(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.println("Payment load test: " + sorted.size() + " checkouts, p50 " + percentile(sorted, 50)
+                + " ms, p95 " + percentile(sorted, 95) + " ms, p99 " + percentile(sorted, 99) + " ms, max "
+                + sorted.get(sorted.size() - 1) + " ms");
+    }
+
+    private static long percentile(List<Long> sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private Long campaign() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        NGO ngo = new NGO();
+        ngo.setFullName("NGO " + tag);
+        ngo.setEmail(tag + "@ngo.test");
+        ngo.setPasswordHash("x");
+        ngo.setRole(RoleType.NGO);
+        ngo.setStatus(UserStatus.Approved);
+        ngo.setCity("Pune");
+        ngo = ngoRepository.save(ngo);
+
+        HelpPost post = new HelpPost();
+        post.setTitle("Winter blankets");
+        post.setDescription("Blankets for the night shelter");
+        post.setCategory("Clothes");
+        post.setTargetAmount(500000.0);
+        return helpPostService.createPost(post, ngo.getId()).getId();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
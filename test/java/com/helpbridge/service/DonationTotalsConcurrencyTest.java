@@ -0,0 +1,174 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.model.Donation;
+import com.helpbridge.model.HelpPost;
+import com.helpbridge.model.NGO;
+import com.helpbridge.repository.DonationRepository;
+import com.helpbridge.repository.HelpPostRepository;
+import com.helpbridge.repository.NGORepository;
+import com.helpbridge.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Direct donations and payment verifications racing on one campaign, with
+ * every order verified twice at once. The first round runs while the campaign
+ * is cold (direct increments); the flush in between marks it hot, so the
+ * second round goes through the deferred counters. After each flush the
+ * collected total must equal the ledger sum exactly.
+ */
+@SpringBootTest(properties = {
+        "helpbridge.donations.hot-threshold=5",
+        "helpbridge.donations.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class DonationTotalsConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int DONATIONS = 40;
+    private static final int ORDERS = 40;
+    private static final double DONATION = 12.34;
+    private static final double PAYMENT = 250.5;
+
+    @Autowired
+    private HelpPostService helpPostService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CampaignTotalsService campaignTotalsService;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private HelpPostRepository helpPostRepository;
+
+    @Autowired
+    private NGORepository ngoRepository;
+
+    @Test
+    void totalsMatchTheLedgerWhetherColdOrHot() throws Exception {
+        Long campaignId = campaign();
+
+        runRound(campaignId, "cold");
+        campaignTotalsService.flush();
+        assertTotals(campaignId, 1);
+        assertEquals(1, campaignTotalsService.getStats().get("hotCampaigns"));
+
+        long deferredBefore = (Long) campaignTotalsService.getStats().get("deferredAdds");
+        runRound(campaignId, "hot");
+        campaignTotalsService.flush();
+        assertTotals(campaignId, 2);
+        assertTrue((Long) campaignTotalsService.getStats().get("deferredAdds") > deferredBefore);
+    }
+
+    private void runRound(Long campaignId, String round) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < DONATIONS; i++) {
+            tasks.add(() -> {
+                helpPostService.donate(campaignId, DONATION);
+                return null;
+            });
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Map<String, Object> payment = new HashMap<>();
+            payment.put("razorpay_order_id", "order_mock_" + round + "_" + i);
+            payment.put("razorpay_payment_id", "pay_mock_" + round + "_" + i);
+            payment.put("razorpay_signature", "mock");
+            payment.put("campaign_id", campaignId);
+            payment.put("amount", PAYMENT);
+            // The browser and a retry verify the same order at the same time
+            for (int copy = 0; copy < 2; copy++) {
+                tasks.add(() -> {
+                    assertTrue(paymentService.verifyPayment(payment, null));
+                    return null;
+                });
+            }
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertTotals(Long campaignId, int rounds) {
+        long expected = rounds * (DONATIONS * Money.toPaise(DONATION) + ORDERS * Money.toPaise(PAYMENT));
+
+        long ledger = 0;
+        for (Object[] row : donationRepository.sumSuccessfulByCampaign()) {
+            if (campaignId.equals(((Number) row[0]).longValue())) {
+                ledger = ((Number) row[1]).longValue();
+            }
+        }
+        HelpPost post = helpPostRepository.findById(campaignId).orElseThrow();
+        assertEquals(expected, ledger);
+        assertEquals(ledger, Money.toPaise(post.getCollectedAmount()));
+
+        Map<String, Integer> perOrder = new HashMap<>();
+        int direct = 0;
+        for (Donation donation : donationRepository.findByCampaignId(campaignId)) {
+            if (donation.getRazorpayOrderId() == null) {
+                direct++;
+            } else {
+                perOrder.merge(donation.getRazorpayOrderId(), 1, Integer::sum);
+            }
+        }
+        assertEquals(rounds * DONATIONS, direct);
+        assertEquals(rounds * ORDERS, perOrder.size());
+        perOrder.forEach((order, count) -> assertEquals(1, count, order));
+    }
+
+    private Long campaign() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        NGO ngo = new NGO();
+        ngo.setFullName("NGO " + tag);
+        ngo.setEmail(tag + "@ngo.test");
+        ngo.setPasswordHash("x");
+        ngo.setRole(RoleType.NGO);
+        ngo.setStatus(UserStatus.Approved);
+        ngo.setCity("Pune");
+        ngo = ngoRepository.save(ngo);
+
+        HelpPost post = new HelpPost();
+        post.setTitle("Books for the library");
+        post.setDescription("Textbooks for the reading room");
+        post.setCategory("Education");
+        post.setTargetAmount(100000.0);
+        return helpPostService.createPost(post, ngo.getId()).getId();
+    }
+}
@@ -0,0 +1,145 @@
+package com.helpbridge.service;
+
+import com.helpbridge.enums.RequestStatus;
+import com.helpbridge.enums.RoleType;
+import com.helpbridge.enums.UserStatus;
+import com.helpbridge.model.NGO;
+import com.helpbridge.model.ServiceRequest;
+import com.helpbridge.model.Student;
+import com.helpbridge.model.User;
+import com.helpbridge.repository.NGORepository;
+import com.helpbridge.repository.ServiceRequestRepository;
+import com.helpbridge.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NGOs racing to accept the same request while funds are being allocated to
+ * it: exactly one NGO may win, and no allocation may be lost to the
+ * accepting write.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestServiceConcurrencyTest {
+
+    private static final int NGOS = 8;
+    private static final int ALLOCATORS = 8;
+    private static final int ALLOCATIONS_EACH = 25;
+    private static final double AMOUNT = 10.5;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private ServiceRequestRepository requestRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private NGORepository ngoRepository;
+
+    @Test
+    void oneNgoWinsAndEveryAllocationCounts() throws Exception {
+        Student student = studentRepository.save(user(new Student(), RoleType.Student));
+        ServiceRequest request = new ServiceRequest();
+        request.setStudent(student);
+        request.setDescription("Reader for an exam");
+        request.setCity("Pune");
+        Long requestId = requestService.createRequest(request).getId();
+
+        List<Long> ngoIds = new ArrayList<>();
+        for (int i = 0; i < NGOS; i++) {
+            ngoIds.add(ngoRepository.save(user(new NGO(), RoleType.NGO)).getId());
+        }
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Long> winners = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long ngoId : ngoIds) {
+            tasks.add(() -> {
+                start.await();
+                try {
+                    requestService.acceptRequestByNgo(requestId, ngoId);
+                    accepted.incrementAndGet();
+                    winners.add(ngoId);
+                } catch (ResponseStatusException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        for (int i = 0; i < ALLOCATORS; i++) {
+            tasks.add(() -> {
+                start.await();
+                for (int j = 0; j < ALLOCATIONS_EACH; j++) {
+                    requestService.allocateFunds(requestId, AMOUNT);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                results.add(pool.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, accepted.get());
+        assertEquals(NGOS - 1, conflicts.get());
+
+        ServiceRequest saved = requestRepository.findById(requestId).orElseThrow();
+        assertEquals(RequestStatus.ACCEPTED, saved.getStatus());
+        assertEquals(winners.get(0), saved.getNgo().getId());
+        assertEquals(ALLOCATORS * ALLOCATIONS_EACH * AMOUNT, saved.getFundsAllocated(), 0.0001);
+    }
+
+    @Test
+    void allocatingToAMissingRequestFails() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> requestService.allocateFunds(Long.MAX_VALUE, AMOUNT));
+        assertTrue(e.getMessage().contains("not found"));
+    }
+
+    private static <T extends User> T user(T user, RoleType role) {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        user.setFullName(role + " " + tag);
+        user.setEmail(tag + "@" + role.name().toLowerCase() + ".test");
+        user.setPasswordHash("x");
+        user.setRole(role);
+        user.setStatus(UserStatus.Approved);
+        user.setCity("Pune");
+        return user;
+    }
+}